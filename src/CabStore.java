@@ -0,0 +1,114 @@
+package sim;
+
+import java.io.*;
+
+/**
+ * Holds the state of all elevator cabs as parallel columns indexed by cab id.
+ * Dispatch scans stream through contiguous arrays instead of visiting one object per cab.
+ * Cab ids number the cabs shaft by shaft, bottom cab first.
+ * Each cab knows the ids of the cabs directly above and below it in its shaft,
+ * so collision checks only look at adjacent cabs however many are stacked.
+ */
+
+public class CabStore {
+
+    int size;
+    int[] curr;             //Current floor
+    int[] dest;             //Floor the cab is heading to
+    int[] pos;              //Position in the shaft, 0 for the bottom cab
+    int[] shaft;
+    int[] nextAvail;        //Time the cab finishes its current trip
+    int[] timeToUsr;        //Scratch cost of the user being dispatched
+    int[] timeToUsrCollide; //Scratch cost including waiting for adjacent cabs
+    int[] above;            //Id of the cab directly above, NONE for the top cab
+    int[] below;            //Id of the cab directly below, NONE for the bottom cab
+
+    final static int NONE = -1;
+
+    /**
+     * Constructs all cabs at their initial positions.
+     *
+     * @param numShafts number of shafts
+     * @param numStacked number of cabs in each shaft
+     */
+
+    CabStore(int numShafts, int numStacked) {
+        size = numShafts * numStacked;
+        curr = new int[size];
+        dest = new int[size];
+        pos = new int[size];
+        shaft = new int[size];
+        nextAvail = new int[size];
+        timeToUsr = new int[size];
+        timeToUsrCollide = new int[size];
+        above = new int[size];
+        below = new int[size];
+        for (int i = 0; i < numShafts; i++) {
+            for (int j = 0; j < numStacked; j++) {
+                int id = i * numStacked + j;
+                shaft[id] = i;
+                pos[id] = j;
+                curr[id] = j + 1;
+                above[id] = j < numStacked - 1 ? id + 1 : NONE;
+                below[id] = j > 0 ? id - 1 : NONE;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Check if a cab is available at a given time.
+     *
+     * @param id id of cab
+     * @param timestamp time to check
+     * @return true if available, false otherwise
+     */
+
+    boolean getAvail(int id, int timestamp) {
+        return timestamp - nextAvail[id] >= 0;
+    }
+
+    /**
+     * Saves all cabs to a checkpoint, one cab after another.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        for (int id = 0; id < size; id++) {
+            out.putInt(id);
+            out.putInt(curr[id]);
+            out.putInt(dest[id]);
+            out.putInt(pos[id]);
+            out.putInt(shaft[id]);
+            out.putInt(nextAvail[id]);
+            out.putInt(timeToUsr[id]);
+            out.putInt(timeToUsrCollide[id]);
+        }
+    }
+
+    /**
+     * Restores all cabs from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    void load(Checkpoint.In in) throws IOException {
+        for (int id = 0; id < size; id++) {
+            if (in.getInt() != id) {
+                throw new IOException("Checkpoint cabs are out of order");
+            }
+            curr[id] = in.getInt();
+            dest[id] = in.getInt();
+            pos[id] = in.getInt();
+            shaft[id] = in.getInt();
+            nextAvail[id] = in.getInt();
+            timeToUsr[id] = in.getInt();
+            timeToUsrCollide[id] = in.getInt();
+        }
+    }
+
+}
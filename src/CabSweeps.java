@@ -0,0 +1,176 @@
+package sim;
+
+import java.io.*;
+
+/**
+ * Collective sweeps of cabs with a passenger capacity.
+ * A sweep starts when a cab leaves the source floor of a new trip and runs one way to its last stop.
+ * Users headed the same way can board it at any floor it has not passed yet.
+ * Riders aboard are counted per floor the sweep crosses, in a row of floors per cab,
+ * so boarding costs at most one check per floor of the trip however many users share the cab.
+ */
+
+public class CabSweeps {
+
+    final static int NONE = -1;
+
+    int capacity;
+    private int numFloors;
+    int[] dir;          //1 up, -1 down, 0 before the first trip
+    int[] startFloor;   //Floor the sweep leaves from
+    int[] startTime;    //Time the sweep leaves its first floor
+    int[] endTime;      //Next available time of the cab when the sweep was last extended
+    int[] aboard;       //Riders between floor f and f + 1 of cab c, at c * numFloors + f - 1
+
+    /**
+     * Constructs cabs with no sweeps.
+     *
+     * @param p model parameters, with a capacity set
+     * @param numCabs number of cabs
+     */
+
+    CabSweeps(Params p, int numCabs) {
+        this.capacity = p.capacity;
+        this.numFloors = p.numFloors;
+        dir = new int[numCabs];
+        startFloor = new int[numCabs];
+        startTime = new int[numCabs];
+        endTime = new int[numCabs];
+        aboard = new int[numCabs * numFloors];
+    }
+
+    /**
+     * Starts the sweep of a cab assigned a new trip.
+     * Riders of the previous sweep are all off by the time it starts.
+     *
+     * @param c id of cab
+     * @param src source floor of the trip
+     * @param dest destination floor of the trip
+     * @param time time the cab leaves the source floor
+     * @param endTime time the cab reaches the destination
+     */
+
+    void start(int c, int src, int dest, int time, int endTime) {
+        dir[c] = dest > src ? 1 : -1;
+        startFloor[c] = src;
+        startTime[c] = time;
+        this.endTime[c] = endTime;
+        int row = c * numFloors;
+        for (int f = 0; f < numFloors; f++) {
+            aboard[row + f] = 0;
+        }
+        board(c,src,dest);
+    }
+
+    /**
+     * Time the sweep of a cab reaches a floor.
+     * The sweep must still be the trip the cab is on, going the user's way and not past the floor yet.
+     *
+     * @param c id of cab
+     * @param src floor to pick up from
+     * @param dest floor to drop off at
+     * @param nextAvail current next available time of the cab
+     * @return time the cab reaches the floor, NONE if the sweep does not pass it
+     */
+
+    int pickup(int c, int src, int dest, int nextAvail) {
+        if (endTime[c] != nextAvail || dir[c] != (dest > src ? 1 : -1)) {
+            return NONE;
+        }
+        int dist = (src - startFloor[c]) * dir[c];
+        if (dist < 0) {
+            return NONE;
+        }
+        return startTime[c] + dist * Model.TRAVEL_TIME;
+    }
+
+    /**
+     * Checks if a rider fits on every floor of a trip.
+     *
+     * @param c id of cab
+     * @param src source floor
+     * @param dest destination floor
+     * @return true if the cab is below capacity all the way, false if otherwise
+     */
+
+    boolean fits(int c, int src, int dest) {
+        int row = c * numFloors - 1;
+        for (int f = Math.min(src,dest); f < Math.max(src,dest); f++) {
+            if (aboard[row + f] >= capacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a rider on every floor of a trip.
+     *
+     * @param c id of cab
+     * @param src source floor
+     * @param dest destination floor
+     */
+
+    void board(int c, int src, int dest) {
+        int row = c * numFloors - 1;
+        for (int f = Math.min(src,dest); f < Math.max(src,dest); f++) {
+            aboard[row + f]++;
+        }
+    }
+
+    /**
+     * Saves the sweeps to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(dir.length);
+        out.putInt(numFloors);
+        for (int c = 0; c < dir.length; c++) {
+            out.putInt(dir[c]);
+            out.putInt(startFloor[c]);
+            out.putInt(startTime[c]);
+            out.putInt(endTime[c]);
+        }
+        for (int i = 0; i < aboard.length; i++) {
+            out.putInt(aboard[i]);
+        }
+    }
+
+    /**
+     * Restores the sweeps from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    void load(Checkpoint.In in) throws IOException {
+        if (in.getInt() != dir.length || in.getInt() != numFloors) {
+            throw new IOException("Checkpoint has sweeps of different cabs");
+        }
+        for (int c = 0; c < dir.length; c++) {
+            dir[c] = in.getInt();
+            startFloor[c] = in.getInt();
+            startTime[c] = in.getInt();
+            endTime[c] = in.getInt();
+        }
+        for (int i = 0; i < aboard.length; i++) {
+            aboard[i] = in.getInt();
+        }
+    }
+
+    /**
+     * Reads past the sweeps of a checkpoint, for models running without capacity.
+     *
+     * @param in checkpoint to read from
+     */
+
+    static void skip(Checkpoint.In in) throws IOException {
+        int numCabs = in.getInt();
+        int floors = in.getInt();
+        for (int i = 0; i < numCabs * 4 + numCabs * floors; i++) {
+            in.getInt();
+        }
+    }
+
+}
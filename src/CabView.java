@@ -0,0 +1,138 @@
+package sim;
+
+/**
+ * Read only view of cab state handed to a DispatchStrategy.
+ * Gives the cabs eligible for the user being dispatched as a bitset, and
+ * evaluates their times to the user. Evaluating only fills in the times of a cab,
+ * nothing else can be changed through the view.
+ */
+
+public final class CabView {
+
+    final static int NONE = -1;
+
+    private final Model m;
+    private final CabStore cabs;
+    private final long[] eligible;
+    private final int words;
+    int base;       //First long of the eligibility bitset of the current user
+
+    /**
+     * Constructs the view of a model.
+     *
+     * @param m model dispatching
+     * @param cabs cab state of the model
+     * @param eligible bitsets of cabs serving each pair of floors
+     * @param words longs per bitset
+     */
+
+    CabView(Model m, CabStore cabs, long[] eligible, int words) {
+        this.m = m;
+        this.cabs = cabs;
+        this.eligible = eligible;
+        this.words = words;
+    }
+
+    //////// Eligible Cabs ////////
+
+    /**
+     * Number of longs holding the eligible cabs.
+     *
+     * @return longs per bitset
+     */
+
+    public int words() {
+        return words;
+    }
+
+    /**
+     * Cabs serving the current user, 64 cab ids per long.
+     * Bit b of long w is set if cab w * 64 + b is eligible.
+     *
+     * @param w index of long
+     * @return bits of eligible cabs
+     */
+
+    public long eligible(int w) {
+        return eligible[base + w];
+    }
+
+    ////////    ////////
+
+    //////// Costs ////////
+
+    /**
+     * Computes the times to the current user of a cab, with and without collision.
+     *
+     * @param c id of cab
+     */
+
+    public void evaluate(int c) {
+        m.findTimeToUsr(c);
+    }
+
+    public int timeToUsr(int c) {
+        return cabs.timeToUsr[c];
+    }
+
+    public int timeToUsrCollide(int c) {
+        return cabs.timeToUsrCollide[c];
+    }
+
+    /**
+     * Check if a cab will collide with adjacent cabs serving the current user.
+     *
+     * @param c id of cab
+     * @param time time to check
+     * @return true if collision occurs, false if otherwise
+     */
+
+    public boolean isCollide(int c, int time) {
+        return m.isCollide(c,time);
+    }
+
+    /**
+     * Time the current user arrives.
+     *
+     * @return current time
+     */
+
+    public int time() {
+        return m.currTime();
+    }
+
+    ////////    ////////
+
+    //////// Cab State ////////
+
+    public int size() {
+        return cabs.size();
+    }
+
+    public int curr(int c) {
+        return cabs.curr[c];
+    }
+
+    public int dest(int c) {
+        return cabs.dest[c];
+    }
+
+    public int pos(int c) {
+        return cabs.pos[c];
+    }
+
+    public int shaft(int c) {
+        return cabs.shaft[c];
+    }
+
+    public int nextAvail(int c) {
+        return cabs.nextAvail[c];
+    }
+
+    public boolean getAvail(int c, int time) {
+        return cabs.getAvail(c,time);
+    }
+
+    ////////    ////////
+
+}
@@ -0,0 +1,244 @@
+package sim;
+
+/**
+ * Calendar queue future event list (R. Brown, 1988).
+ * Events are hashed by timestamp into buckets, each bucket holding one "day" of a "year".
+ * The number of buckets and the bucket width are resized as the list grows and shrinks.
+ * Events are returned in the same order as Event.compareTo, so results match the heap.
+ */
+
+public class CalendarQueue implements EventList {
+
+    /**
+     * Bucket entry. Buckets are kept sorted.
+     */
+
+    private static class Node {
+        Event e;
+        Node next;
+
+        Node(Event e) {
+            this.e = e;
+        }
+    }
+
+    private Node[] buckets;
+    private int width;          //Time covered by each bucket
+    private int size;
+    private int topThreshold;   //Grow when size exceeds
+    private int botThreshold;   //Shrink when size falls below
+    private boolean resizeEnabled;
+
+    // Current position in the calendar
+    private int lastBucket;
+    private long bucketTop;
+
+    /**
+     * Constructs an empty calendar.
+     */
+
+    public CalendarQueue() {
+        setup(2,1,0);
+        resizeEnabled = true;
+    }
+
+    //////// Event List Functions ////////
+
+    @Override
+    public void add(Event e) {
+        insert(new Node(e));
+        size++;
+        if (size > topThreshold) {
+            resize(buckets.length * 2);
+        }
+    }
+
+    @Override
+    public Event poll() {
+        int i = locate();
+        if (i < 0) {
+            return null;
+        }
+        Node n = buckets[i];
+        buckets[i] = n.next;
+        size--;
+        if (size < botThreshold) {
+            resize(buckets.length / 2);
+        }
+        return n.e;
+    }
+
+    @Override
+    public Event peek() {
+        int i = locate();
+        if (i < 0) {
+            return null;
+        }
+        return buckets[i].e;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    ////////    ////////
+
+    //////// Calendar Functions ////////
+
+    /**
+     * Resets the calendar to an empty year.
+     *
+     * @param numBuckets number of buckets
+     * @param width time covered by each bucket
+     * @param start time to start the calendar from
+     */
+
+    private void setup(int numBuckets, int width, long start) {
+        this.buckets = new Node[numBuckets];
+        this.width = width;
+        this.size = 0;
+        this.topThreshold = numBuckets * 2;
+        this.botThreshold = numBuckets / 2 - 2;
+        long day = start / width;
+        lastBucket = (int)(day % numBuckets);
+        bucketTop = (day + 1) * width;
+    }
+
+    /**
+     * Inserts a node into its bucket, after any equal events.
+     *
+     * @param n node to insert
+     */
+
+    private void insert(Node n) {
+        Event e = n.e;
+        long day = e.timestamp / width;
+        int i = (int)(day % buckets.length);
+        Node prev = null;
+        Node curr = buckets[i];
+        while (curr != null && curr.e.compareTo(e) <= 0) {
+            prev = curr;
+            curr = curr.next;
+        }
+        n.next = curr;
+        if (prev == null) {
+            buckets[i] = n;
+        } else {
+            prev.next = n;
+        }
+        // Move back if event is before the current day
+        if (e.timestamp < bucketTop - width) {
+            lastBucket = i;
+            bucketTop = (day + 1) * width;
+        }
+    }
+
+    /**
+     * Finds the bucket holding the earliest event and moves the calendar to it.
+     *
+     * @return bucket index, -1 if empty
+     */
+
+    private int locate() {
+        if (size == 0) {
+            return -1;
+        }
+        int i = lastBucket;
+        long top = bucketTop;
+        // Scan one year from the current day
+        for (int n = 0; n < buckets.length; n++) {
+            Node head = buckets[i];
+            if (head != null && head.e.timestamp < top) {
+                lastBucket = i;
+                bucketTop = top;
+                return i;
+            }
+            i++;
+            top += width;
+            if (i == buckets.length) {
+                i = 0;
+            }
+        }
+        // Sparse calendar, search directly for the earliest event
+        int min = -1;
+        for (i = 0; i < buckets.length; i++) {
+            if (buckets[i] != null && (min < 0 || buckets[i].e.compareTo(buckets[min].e) < 0)) {
+                min = i;
+            }
+        }
+        lastBucket = min;
+        bucketTop = ((long)buckets[min].e.timestamp / width + 1) * width;
+        return min;
+    }
+
+    /**
+     * Copies all events into a calendar of a new size.
+     *
+     * @param numBuckets new number of buckets
+     */
+
+    private void resize(int numBuckets) {
+        if (!resizeEnabled) {
+            return;
+        }
+        int newWidth = newWidth();
+        Node[] old = buckets;
+        int count = size;
+        setup(numBuckets,newWidth,bucketTop - width);
+        for (int i = 0; i < old.length; i++) {
+            Node n = old[i];
+            while (n != null) {
+                Node next = n.next;
+                insert(n);
+                n = next;
+            }
+        }
+        size = count;
+    }
+
+    /**
+     * Estimates bucket width from the separation of the earliest events.
+     * Separations larger than twice the average are ignored.
+     *
+     * @return new bucket width
+     */
+
+    private int newWidth() {
+        if (size < 2) {
+            return width;
+        }
+        int n = size <= 5 ? size : Math.min(5 + size / 10, 25);
+        Event[] sample = new Event[n];
+        resizeEnabled = false;
+        for (int i = 0; i < n; i++) {
+            sample[i] = poll();
+        }
+        for (int i = 0; i < n; i++) {
+            add(sample[i]);
+        }
+        resizeEnabled = true;
+        double avg = (double)(sample[n - 1].timestamp - sample[0].timestamp) / (n - 1);
+        double total = 0;
+        int count = 0;
+        for (int i = 1; i < n; i++) {
+            int sep = sample[i].timestamp - sample[i - 1].timestamp;
+            if (sep <= avg * 2) {
+                total += sep;
+                count++;
+            }
+        }
+        if (count == 0 || total == 0) {
+            return 1;
+        }
+        return Math.max((int)Math.ceil(3 * total / count),1);
+    }
+
+    ////////    ////////
+
+}
@@ -0,0 +1,105 @@
+package sim;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Buffered binary streams over NIO channels for checkpoints.
+ * Values are written big endian with no padding or field names.
+ */
+
+public class Checkpoint {
+
+    final static int MAGIC = 0x44455335;    //"DES5", transfers between stacked cabs
+    final static int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes values to a channel through a direct buffer.
+     */
+
+    static class Out {
+        private WritableByteChannel ch;
+        private ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Out(WritableByteChannel ch) {
+            this.ch = ch;
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buf.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            ensure(8);
+            buf.putLong(v);
+        }
+
+        void putBoolean(boolean v) throws IOException {
+            ensure(1);
+            buf.put((byte)(v ? 1 : 0));
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() < n) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes out all buffered values.
+         */
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            buf.clear();
+        }
+    }
+
+    /**
+     * Reads values from a channel through a direct buffer.
+     */
+
+    static class In {
+        private ReadableByteChannel ch;
+        private ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        In(ReadableByteChannel ch) {
+            this.ch = ch;
+            buf.flip();
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return buf.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(8);
+            return buf.getLong();
+        }
+
+        boolean getBoolean() throws IOException {
+            ensure(1);
+            return buf.get() != 0;
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() >= n) {
+                return;
+            }
+            buf.compact();
+            while (buf.position() < n) {
+                if (ch.read(buf) < 0) {
+                    throw new EOFException("Checkpoint is truncated");
+                }
+            }
+            buf.flip();
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package sim;
+
+/**
+ * Algorithm 1, collision avoidance.
+ * Takes the cab closest to the user among those isCollide holds for now,
+ * falling back to the closest of all eligible cabs.
+ * Ties go to the cab with the lowest id.
+ */
+
+public class CollisionAvoidanceDispatch implements DispatchStrategy {
+
+    @Override
+    public int select(CabView cabs, User u) {
+        int time = cabs.time();
+        int best = CabView.NONE;            //Closest eligible cab
+        int bestFiltered = CabView.NONE;    //Closest eligible cab passing the collision filter
+        int words = cabs.words();
+        for (int w = 0; w < words; w++) {
+            //Only eligible cabs, in id order
+            for (long bits = cabs.eligible(w); bits != 0; bits &= bits - 1) {
+                int c = w << 6 | Long.numberOfTrailingZeros(bits);
+                cabs.evaluate(c);
+                int t = cabs.timeToUsr(c);
+                if (best == CabView.NONE || t < cabs.timeToUsr(best)) {
+                    best = c;
+                }
+                if (cabs.isCollide(c,time) && (bestFiltered == CabView.NONE || t < cabs.timeToUsr(bestFiltered))) {
+                    bestFiltered = c;
+                }
+            }
+        }
+        if (bestFiltered != CabView.NONE) {
+            return bestFiltered;
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,28 @@
+package sim;
+
+/**
+ * Algorithm 2, collision resolution.
+ * Takes the cab closest to the user when waiting for adjacent cabs is accounted for.
+ * Ties go to the cab with the lowest id.
+ */
+
+public class CollisionResolutionDispatch implements DispatchStrategy {
+
+    @Override
+    public int select(CabView cabs, User u) {
+        int best = CabView.NONE;
+        int words = cabs.words();
+        for (int w = 0; w < words; w++) {
+            //Only eligible cabs, in id order
+            for (long bits = cabs.eligible(w); bits != 0; bits &= bits - 1) {
+                int c = w << 6 | Long.numberOfTrailingZeros(bits);
+                cabs.evaluate(c);
+                if (best == CabView.NONE || cabs.timeToUsrCollide(c) < cabs.timeToUsrCollide(best)) {
+                    best = c;
+                }
+            }
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,125 @@
+package sim;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Open destination dispatch groups, one slot per source floor, direction and destination zone.
+ * An arrival looks up its slot directly, so grouping costs O(1) per arrival.
+ * A slot holds the last cab run started for it, and is replaced when a new run starts.
+ */
+
+public class DestinationGroups {
+
+    final static int NONE = -1;
+
+    int window;
+    int spread;
+    private int numZones;
+    int[] cab;          //Cab of the run, NONE if no run was started
+    int[] openTime;     //Arrival time of the first user
+    int[] departure;    //Time the cab leaves the source floor
+    int[] end;          //Farthest destination of the run
+    int[] endTime;      //Time the cab reaches the farthest destination
+
+    /**
+     * Constructs empty slots.
+     *
+     * @param p model parameters, with grouping enabled
+     */
+
+    DestinationGroups(Params p) {
+        this.window = p.groupWindow;
+        this.spread = p.groupSpread;
+        this.numZones = (p.numFloors + spread - 1) / spread;
+        int slots = p.numFloors * 2 * numZones;
+        cab = new int[slots];
+        openTime = new int[slots];
+        departure = new int[slots];
+        end = new int[slots];
+        endTime = new int[slots];
+        Arrays.fill(cab,NONE);
+    }
+
+    /**
+     * Slot of a trip.
+     *
+     * @param src source floor
+     * @param dest destination floor
+     * @return index of slot
+     */
+
+    int slot(int src, int dest) {
+        int up = dest > src ? 1 : 0;
+        return ((src - 1) * 2 + up) * numZones + (dest - 1) / spread;
+    }
+
+    /**
+     * Starts a cab run, replacing the previous run of the slot.
+     *
+     * @param slot index of slot
+     * @param c id of cab
+     * @param time arrival time of the first user
+     * @param departure time the cab leaves the source floor
+     * @param dest destination of the first user
+     * @param endTime time the cab reaches the destination
+     */
+
+    void open(int slot, int c, int time, int departure, int dest, int endTime) {
+        this.cab[slot] = c;
+        this.openTime[slot] = time;
+        this.departure[slot] = departure;
+        this.end[slot] = dest;
+        this.endTime[slot] = endTime;
+    }
+
+    /**
+     * Saves the slots to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(cab.length);
+        for (int i = 0; i < cab.length; i++) {
+            out.putInt(cab[i]);
+            out.putInt(openTime[i]);
+            out.putInt(departure[i]);
+            out.putInt(end[i]);
+            out.putInt(endTime[i]);
+        }
+    }
+
+    /**
+     * Restores the slots from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    void load(Checkpoint.In in) throws IOException {
+        if (in.getInt() != cab.length) {
+            throw new IOException("Checkpoint has different destination zones");
+        }
+        for (int i = 0; i < cab.length; i++) {
+            cab[i] = in.getInt();
+            openTime[i] = in.getInt();
+            departure[i] = in.getInt();
+            end[i] = in.getInt();
+            endTime[i] = in.getInt();
+        }
+    }
+
+    /**
+     * Reads past the slots of a checkpoint, for models running without grouping.
+     *
+     * @param in checkpoint to read from
+     */
+
+    static void skip(Checkpoint.In in) throws IOException {
+        int slots = in.getInt();
+        for (int i = 0; i < slots * 5; i++) {
+            in.getInt();
+        }
+    }
+
+}
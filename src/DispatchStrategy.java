@@ -0,0 +1,47 @@
+package sim;
+
+/**
+ * Policy that picks the cab to serve an arriving user.
+ * A Model binds exactly one strategy per run.
+ */
+
+public interface DispatchStrategy {
+
+    /**
+     * Selects the cab to assign to a user.
+     * Strategies walk the eligible cabs of the view and evaluate the ones they compare.
+     * The Model reads the time to the user with collisions of the selected cab,
+     * so the selected cab must have been evaluated.
+     *
+     * @param cabs view of cab state for the user
+     * @param u user arriving
+     * @return id of selected cab, CabView.NONE if no cab is eligible
+     */
+
+    int select(CabView cabs, User u);
+
+    /**
+     * Strategy of a numbered algorithm.
+     * Unknown numbers always select the first cab, as the algorithm switch used to.
+     *
+     * @param algo algorithm number, 1 for collision avoidance or 2 for collision resolution
+     * @return strategy of the algorithm
+     */
+
+    static DispatchStrategy forAlgo(int algo) {
+        switch (algo) {
+            case 1:
+                return new CollisionAvoidanceDispatch();
+            case 2:
+                return new CollisionResolutionDispatch();
+            default:
+                return new DispatchStrategy() {
+                    @Override
+                    public int select(CabView cabs, User u) {
+                        return 0;
+                    }
+                };
+        }
+    }
+
+}
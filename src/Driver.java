@@ -6,11 +6,23 @@ import sim.*;
  * PARAMETERS:
  *
  * NUM_FLOORS number of floors
- * NUM_SHAFTS number of shafts
+ * NUM_SHAFTS number of shafts, unless given as the third argument
  * NUM_STACKED number of cabs per shaft
- * BOUNDS level bounds for each cab
+ * BOUNDS lowest and highest floor of each cab in a shaft, bottom cab first, two per stacked cab
  * RUNTIME total simulation time
+ * SEED seed for random number generators, 0 for a random seed
  * ALGO algorithm to run
+ * CALENDAR true to use a calendar queue as the future event list, false for per floor arrival slots and a binary heap
+ * HYBRID true to switch the future event list between a binary heap and one second time steps by traffic density
+ * LOAD arrival rate multiplier, 1 for the measured traffic
+ * GROUP_WINDOW seconds users on a floor are grouped into one cab run by destination, 0 for a trip per user
+ * GROUP_SPREAD floors per destination zone users are grouped by, 1 for the same destination only
+ * CAPACITY riders per cab on collective up and down sweeps, 0 for a trip per user
+ * PACKED true to run without event objects on a packed primitive heap
+ * POOLED true to recycle users and events
+ * WINDOW length of statistics windows streamed while running, 0 for totals at the end only
+ * EVENT_LOG file to record every processed event to, empty for none. Compare logs with sim.EventLogDiff
+ * PROFILE true to time the engine loop, printed after the statistics, as JSON when not verbose
  */
 
 public class Driver {
@@ -20,27 +32,139 @@ public class Driver {
     final static int NUM_STACKED = 2;
     final static int[] BOUNDS = new int[]{1,12,2,21};
     final static int RUNTIME = 3600;
+    final static long SEED = 0;
+    final static boolean CALENDAR = false;
+    final static boolean HYBRID = false;
+    final static double LOAD = 1;
+    final static int GROUP_WINDOW = 0;
+    final static int GROUP_SPREAD = 1;
+    final static int CAPACITY = 0;
+    final static boolean PACKED = false;
+    final static boolean POOLED = false;
+    final static int WINDOW = 0;
+    final static boolean PROFILE = false;
+    final static String EVENT_LOG = "";
+    final static String USAGE = "Usage: Driver [ALGO] [VERBOSE] [SHAFTS] [-r REPLICATIONS]";
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
         if (args.length < 2) {
-            System.out.println("Usage: Driver [ALGO] [VERBOSE]");
-            System.exit(1);
+            usage(null);
         }
-        int algo = Integer.parseInt(args[0]);
+        int algo = number(args[0]);
         boolean v = true;
-        if (Integer.parseInt(args[1]) == 0) {
+        if (number(args[1]) == 0) {
             v = false;
         }
-        sim.Params p = new sim.Params(NUM_FLOORS,NUM_SHAFTS,NUM_STACKED,BOUNDS);
+        // Optional shaft count, as swept by testing_scripts/single.sh, and replications behind -r
+        int numShafts = NUM_SHAFTS;
+        int replications = 0;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("-r")) {
+                if (i + 1 == args.length) {
+                    usage("Missing number of replications after -r");
+                }
+                replications = number(args[++i]);
+            } else {
+                numShafts = number(args[i]);
+            }
+        }
+        sim.Params p;
+        if (SEED != 0) {
+            p = new sim.Params(NUM_FLOORS,numShafts,NUM_STACKED,BOUNDS,SEED);
+        } else {
+            p = new sim.Params(NUM_FLOORS,numShafts,NUM_STACKED,BOUNDS);
+        }
+        p.setLoad(LOAD);
+        p.setGrouping(GROUP_WINDOW,GROUP_SPREAD);
+        p.setCapacity(CAPACITY);
+        if (replications > 0) {
+            // Run replications concurrently, one silent row each
+            sim.Replications r = new sim.Replications(p,algo,RUNTIME);
+            for (sim.Stats s : r.run(replications,Runtime.getRuntime().availableProcessors())) {
+                s.printQuiet();
+            }
+            return;
+        }
         sim.Stats s = new sim.Stats();
-        sim.Engine e = new sim.Engine(p,s,algo,v);
-        e.run(RUNTIME);
+        sim.EngineProfile prof = null;
+        sim.EventLog log = null;
+        sim.Engine e;
+        if (CALENDAR) {
+            e = new sim.Engine(p,s,algo,v,new sim.CalendarQueue());
+        } else if (HYBRID) {
+            e = new sim.Engine(p,s,algo,v,new sim.HybridEventList(NUM_FLOORS));
+        } else {
+            e = new sim.Engine(p,s,algo,v);
+        }
+        e.setPooled(POOLED);
+        if (PROFILE) {
+            prof = new sim.EngineProfile();
+            e.setProfile(prof);
+        }
+        if (!EVENT_LOG.isEmpty()) {
+            log = sim.EventLog.create(java.nio.file.Paths.get(EVENT_LOG));
+            e.setEventLog(log);
+        }
+        if (PACKED) {
+            e.runPacked(RUNTIME);
+        } else if (WINDOW > 0) {
+            // One row per window as the simulation runs
+            System.out.println("start,end,arrived,exited,avg_wait,avg_time");
+            e.stream(RUNTIME,WINDOW,new sim.StatsSink() {
+                @Override
+                public boolean accept(sim.StatsWindow w) {
+                    System.out.println(w.toCsv());
+                    return true;
+                }
+            });
+        } else {
+            e.run(RUNTIME);
+        }
         if (v) {
             s.printStats();
         } else {
             s.printQuiet();
         }
+        if (log != null) {
+            log.close();
+        }
+        if (prof != null) {
+            if (v) {
+                prof.print();
+            } else {
+                System.out.println(prof.toJson());
+            }
+        }
     }
 
-}
+    /**
+     * Parses a numeric argument, exiting with the usage if it isn't a number.
+     *
+     * @param arg argument to parse
+     * @return value of the argument
+     */
+
+    private static int number(String arg) {
+        try {
+            return Integer.parseInt(arg);
+        } catch (NumberFormatException ex) {
+            usage("Not a number: " + arg);
+            return 0;
+        }
+    }
 
+    /**
+     * Prints an error and the usage, then exits.
+     *
+     * @param error error to print first, null for none
+     */
+
+    private static void usage(String error) {
+        if (error != null) {
+            System.out.println(error);
+        }
+        System.out.println(USAGE);
+        System.exit(1);
+    }
+
+}
@@ -1,56 +1,727 @@
 package sim;
 
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
 
 /**
  * Engine of the simulator.
  * Schedules recieved events.
- * Processes earliest event.
+ * Processes earliest events in batches sharing the same timestamp.
+ * Cancelled events are left in the event list as tombstones and skipped when popped.
  */
 
 public class Engine {
 
-    private PriorityQueue<Event> e;
+    private EventList e;
     private Params p;
     private Stats s;
     private Model m;
+    private TickListener tick;
+    private EngineProfile prof;
+    private EventLog log;
+    private int time;       //Time of the last processed event
+
+    // Events of the current timestamp, in processing order
+    private Event[] batch = new Event[16];
+    private int head;
+    private int tail;
+    private int batchTime;
+    private boolean batching;   //True from drain until unprocessed events are returned
+    private BatchSink sink = new BatchSink();
+
+    // Tombstones still in the event list or batch
+    private int numCancelled;
+    final static int MIN_COMPACT = 64;      //Fewer tombstones are never worth a rebuild
+
+    // User slots for packed events
+    private User[] users;
+    private int[] freeSlots;
+    private int numFree;
+    private int numSlots;
 
     /**
      * Constructs the main Engine.
+     * Keeps the pending arrival of each floor in its own slot and exits in a binary heap.
      * 
      * @param p model parameters
      * @param s statistics aggregator
      */
 
     public Engine(Params p, Stats s, int algo, boolean v) {
+        this(p,s,algo,v,new FloorSlotEventList(p.numFloors));
+    }
+
+    /**
+     * Constructs the main Engine with a given future event list.
+     *
+     * @param p model parameters
+     * @param s statistics aggregator
+     * @param e empty future event list
+     */
+
+    public Engine(Params p, Stats s, int algo, boolean v, EventList e) {
         this.s = s;
+        this.e = e;
         this.m = new Model(p,s,algo,v);
     }
 
+    /**
+     * Enables recycling of users and events.
+     * Reduces garbage on long runs.
+     *
+     * @param pooled true to recycle, false to allocate new objects
+     */
+
+    public void setPooled(boolean pooled) {
+        m.pool = new Pool(m.ctx,pooled);
+    }
+
+    /**
+     * Dispatches users with a strategy instead of the numbered algorithm.
+     * Bind before running, one strategy per run.
+     *
+     * @param strategy strategy to dispatch users with
+     */
+
+    public void setStrategy(DispatchStrategy strategy) {
+        m.setStrategy(strategy);
+    }
+
+    /**
+     * Sets a listener called after each timestamp is processed.
+     *
+     * @param tick listener, null for none
+     */
+
+    public void setTickListener(TickListener tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Model the engine runs.
+     *
+     * @return model
+     */
+
+    Model getModel() {
+        return m;
+    }
+
+    /**
+     * Number of tombstones still in the event list or batch.
+     *
+     * @return number of cancelled events not yet popped
+     */
+
+    int numCancelled() {
+        return numCancelled;
+    }
+
+    /**
+     * Attaches instrumentation to the engine loop.
+     * Profiling adds timer calls around every event, so only enable it to find hot spots.
+     *
+     * @param prof profile to record into, null for none
+     */
+
+    public void setProfile(EngineProfile prof) {
+        this.prof = prof;
+    }
+
+    /**
+     * Records every processed event to a log.
+     * The log is not closed by the engine.
+     *
+     * @param log log to record into, null for none
+     */
+
+    public void setEventLog(EventLog log) {
+        this.log = log;
+    }
+
     /**
      * Runs the engine until a predetermined time.
+     * All events sharing the earliest timestamp are popped as one batch.
+     * Events triggered for the same timestamp join the batch without going through the event list.
+     * Processes events in the same order as polling one event at a time.
      *
      * @param endTime time to run the engine until
      */
 
     public void run(int endTime) {
-        e = m.init();
+        m.init(e);
+        time = 0;
+        resume(endTime);
+    }
+
+    /**
+     * Continues a started or restored simulation until a predetermined time.
+     * Running to t1 then resuming to t2 processes the same events as running to t2.
+     *
+     * @param endTime time to run the engine until
+     */
+
+    public void resume(int endTime) {
+        if (prof != null || log != null) {
+            resumeObserved(endTime);
+            return;
+        }
+        //Iterate through list until predetermined end time, or no events are left
+        while (time < endTime && !e.isEmpty()) {
+            time = drain();     //Pop earliest events, advance simulation time
+            int numEvents = 0;
+            while (head < tail) {
+                Event curr = batch[head];
+                batch[head++] = null;
+                if (curr.cancelled) {
+                    numCancelled--;
+                    continue;
+                }
+                curr.processed = true;
+                curr.process(m,sink);   //Polymorphic, schedules triggered events
+                numEvents++;
+                if (time >= endTime) {
+                    break;      //Only the first event past the end time is processed
+                }
+            }
+            undrain();      //Return unprocessed events
+            if (tick != null) {
+                tick.tick(time,numEvents);
+            }
+        }
+        return;
+    }
+
+    /**
+     * Runs the simulation, streaming statistics of each window of time to a sink.
+     * Runs until the end time or until the sink asks to stop, so it can run indefinitely.
+     * After a stop, events up to the next window boundary are still processed but not reported.
+     * Memory stays constant, only the current window is kept.
+     * Forwards ticks to the tick listener, if set.
+     *
+     * @param endTime time to run the simulation until, Integer.MAX_VALUE for no limit
+     * @param window length of each window in seconds
+     * @param out receiver of windows
+     */
+
+    public void stream(int endTime, int window, StatsSink out) {
+        m.init(e);
+        time = 0;
+        TickListener prev = tick;
+        StreamingStats windows = new StreamingStats(s,0,window,out,prev);
+        tick = windows;
+        try {
+            //Resume a window at a time, so a stop is seen within one window
+            while (time < endTime && !e.isEmpty() && !windows.isStopped()) {
+                resume((int)Math.min(endTime,(long)time + window));
+            }
+            windows.flush(time);
+        } finally {
+            tick = prev;
+        }
+    }
+
+    /**
+     * Continues the simulation while recording into the profile or event log.
+     * Same loop as resume, with timers around each phase when profiling.
+     *
+     * @param endTime time to run the simulation until
+     */
+
+    private void resumeObserved(int endTime) {
+        EventSink out = prof != null ? new ProfiledSink() : sink;
+        int startTime = time;
+        long wallStart = System.nanoTime();
+        while (time < endTime && !e.isEmpty()) {
+            long start = System.nanoTime();
+            time = drain();
+            if (prof != null) {
+                prof.pollNanos += System.nanoTime() - start;
+            }
+            int numEvents = 0;
+            while (head < tail) {
+                Event curr = batch[head];
+                batch[head++] = null;
+                if (curr.cancelled) {
+                    numCancelled--;
+                    continue;
+                }
+                int kind = EngineProfile.kind(curr);
+                User u = curr.u;        //Processed events may be recycled
+                curr.processed = true;
+                if (prof != null) {
+                    long scheduled = prof.scheduleNanos;
+                    start = System.nanoTime();
+                    curr.process(m,out);
+                    prof.processNanos[kind] += System.nanoTime() - start - (prof.scheduleNanos - scheduled);
+                    prof.counts[kind]++;
+                } else {
+                    curr.process(m,out);
+                }
+                if (log != null) {
+                    log.record(time,kind,u);
+                }
+                numEvents++;
+                if (time >= endTime) {
+                    break;
+                }
+            }
+            undrain();
+            if (tick != null) {
+                tick.tick(time,numEvents);
+            }
+        }
+        if (prof != null) {
+            prof.wallNanos += System.nanoTime() - wallStart;
+            prof.simTime += time - startTime;
+        }
+    }
+
+    /**
+     * Runs the simulation with passengers modeled as processes.
+     * Produces the same results as run.
+     *
+     * @param endTime time to run the simulation until
+     */
+
+    public void runProcesses(int endTime) {
+        for (User u : m.initUsers()) {
+            start(new PassengerProcess(u),0);
+        }
+        time = 0;
+        resume(endTime);
+    }
+
+    /**
+     * Schedules the first step of a process.
+     * Continue the simulation with resume.
+     *
+     * @param proc process to start
+     * @param timestamp time to start at, not before the current time
+     */
+
+    public void start(SimProcess proc, int timestamp) {
+        proc.start(timestamp,e);
+    }
+
+    /**
+     * Cancels a scheduled event in O(1).
+     * The event stays in the event list as a tombstone until popped.
+     * Once tombstones outnumber live events the list is rebuilt without them,
+     * so the amortized cost stays O(log n) and dead entries never exceed half the list.
+     * A handle is only valid until its event is processed, processed events may be recycled.
+     * The tombstone lets go of its user, which may be recycled while the tombstone waits.
+     *
+     * @param event scheduled event to cancel
+     * @throws IllegalArgumentException if the event was already processed or recycled
+     */
+
+    public void cancel(Event event) {
+        if (event.cancelled) {
+            return;
+        }
+        if (event.processed || event.u == null) {
+            throw new IllegalArgumentException("Cannot cancel an event that was already processed");
+        }
+        event.cancelled = true;
+        event.u = null;
+        numCancelled++;
+        if (numCancelled >= MIN_COMPACT && numCancelled * 2 > e.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves a scheduled event to a new time in O(log n).
+     * The old event is cancelled and a replacement for the same user is scheduled.
+     *
+     * @param event scheduled event to move
+     * @param timestamp new time of event, not before the current time
+     * @return replacement event, the handle for further rescheduling
+     */
+
+    public Event reschedule(Event event, int timestamp) {
+        if (event.cancelled) {
+            throw new IllegalArgumentException("Cannot reschedule a cancelled event");
+        }
+        if (timestamp < time) {
+            throw new IllegalArgumentException("Cannot reschedule to " + timestamp + " before current time " + time);
+        }
+        User u = event.u;
+        cancel(event);
+        Event next = create(type(event),timestamp,u);
+        sink.add(next);
+        return next;
+    }
+
+    /**
+     * Rebuilds the event list without tombstones.
+     * Tombstones in the current batch are left for the batch loop to skip.
+     */
+
+    private void compact() {
+        Event[] live = new Event[e.size()];
+        int n = 0;
+        while (!e.isEmpty()) {
+            Event event = e.poll();
+            if (event.cancelled) {
+                numCancelled--;
+            } else {
+                live[n++] = event;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            e.add(live[i]);
+        }
+    }
+
+    /**
+     * Saves the full simulation state to a binary file.
+     * Must not be called while events are being processed.
+     *
+     * @param path file to write
+     */
+
+    public void checkpoint(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path,StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)) {
+            save(ch);
+        }
+    }
+
+    /**
+     * Restores the full simulation state from a binary file.
+     * Engine must be built with the same parameters and not yet run.
+     * Continue the simulation with resume.
+     *
+     * @param path file to read
+     */
+
+    public void restore(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path,StandardOpenOption.READ)) {
+            load(ch);
+        }
+    }
+
+    /**
+     * Forks the simulation into an independent branch in memory.
+     * The branch starts from the current state and can then run on its own thread.
+     * Parameters may change the bounds of the cabs, and a different seed reseeds
+     * all random number generators from this point on.
+     * Must not be called while events are being processed.
+     *
+     * @param p parameters of the branch, with the same floors, shafts and cabs per shaft
+     * @param algo algorithm the branch runs
+     * @param s statistics aggregator of the branch, continues from the current statistics
+     * @return branch, continue it with resume
+     */
+
+    public Engine fork(Params p, int algo, Stats s) {
+        Params curr = m.getParams();
+        if (p.numFloors != curr.numFloors || p.numShafts != curr.numShafts || p.numStacked != curr.numStacked) {
+            throw new IllegalArgumentException("Branch must have the same floors, shafts and cabs per shaft");
+        }
+        Engine branch = new Engine(p,s,algo,false);
+        branch.setPooled(m.pool.isEnabled());
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            save(Channels.newChannel(bytes));
+            branch.load(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);     //Not possible in memory
+        }
+        branch.m.setAlgo(algo);
+        if (p.seeded && (!curr.seeded || p.seed != curr.seed)) {
+            branch.m.reseed(p.seed);
+        }
+        return branch;
+    }
+
+    /**
+     * Writes the full simulation state to a channel.
+     *
+     * @param ch channel to write to
+     */
+
+    private void save(WritableByteChannel ch) throws IOException {
+        Checkpoint.Out out = new Checkpoint.Out(ch);
+        out.putInt(Checkpoint.MAGIC);
+        out.putInt(time);
+        m.save(out);
+        // Future event list, in order, without tombstones
+        compact();
+        Event[] events = new Event[e.size()];
+        boolean processes = false;
+        for (int i = 0; i < events.length; i++) {
+            events[i] = e.poll();
+            processes |= events[i] instanceof ProcessEvent;
+        }
+        if (processes) {
+            for (Event event : events) {
+                e.add(event);
+            }
+            throw new IOException("Processes cannot be checkpointed");
+        }
+        out.putInt(events.length);
+        for (Event event : events) {
+            out.putInt(type(event));
+            out.putInt(event.timestamp);
+            event.u.save(out);
+            e.add(event);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the full simulation state from a channel.
+     *
+     * @param ch channel to read from
+     */
+
+    private void load(ReadableByteChannel ch) throws IOException {
+        Checkpoint.In in = new Checkpoint.In(ch);
+        if (in.getInt() != Checkpoint.MAGIC) {
+            throw new IOException("Not a checkpoint");
+        }
+        time = in.getInt();
+        m.load(in);
+        int n = in.getInt();
+        for (int i = 0; i < n; i++) {
+            int type = in.getInt();
+            int timestamp = in.getInt();
+            User u = new User(in);
+            e.add(create(type,timestamp,u));
+        }
+    }
+
+    /**
+     * Creates an event of a given type.
+     *
+     * @param type packed event type of the event
+     * @param timestamp time of event
+     * @param u user of event
+     * @return new or recycled event
+     */
+
+    private Event create(int type, int timestamp, User u) {
+        switch (type) {
+            case PackedEventHeap.GEN:
+                return m.pool.genEvent(timestamp,u);
+            case PackedEventHeap.ARR:
+                return m.pool.arrEvent(timestamp,u);
+            default:
+                return m.pool.exitEvent(timestamp,u);
+        }
+    }
+
+    /**
+     * Type tag of an event, as used by the packed heap.
+     *
+     * @param event event to tag
+     * @return event type
+     */
+
+    private static int type(Event event) {
+        if (event instanceof UserGenEvent) {
+            return PackedEventHeap.GEN;
+        } else if (event instanceof UserArrEvent) {
+            return PackedEventHeap.ARR;
+        }
+        return PackedEventHeap.EXIT;
+    }
+
+    /**
+     * Pops all events sharing the earliest timestamp into the batch.
+     *
+     * @return timestamp of the batch
+     */
+
+    private int drain() {
+        head = 0;
+        tail = 0;
+        Event first = e.poll();
+        while (first.cancelled && !e.isEmpty()) {
+            numCancelled--;
+            first = e.poll();
+        }
+        batchTime = first.timestamp;
+        batch[tail++] = first;
+        while (!e.isEmpty() && e.peek().timestamp == batchTime) {
+            if (tail == batch.length) {
+                batch = Arrays.copyOf(batch,tail * 2);
+            }
+            batch[tail++] = e.poll();
+        }
+        batching = true;
+        return batchTime;
+    }
+
+    /**
+     * Returns events of the batch left unprocessed to the event list.
+     * Events scheduled from then on go to the event list, even at the batch timestamp.
+     */
+
+    private void undrain() {
+        while (head < tail) {
+            e.add(batch[head]);
+            batch[head++] = null;
+        }
+        batching = false;
+    }
+
+    /**
+     * Adds events of the current timestamp to the batch, in order, while the batch is processed.
+     * Later events, and all events between runs, go to the event list.
+     */
+
+    private class BatchSink implements ReschedulingSink {
+
+        @Override
+        public void add(Event event) {
+            if (!batching || event.timestamp != batchTime) {
+                e.add(event);
+                return;
+            }
+            if (tail == batch.length) {
+                batch = Arrays.copyOf(batch,tail * 2);
+            }
+            //Usually the latest user, so insert from the back
+            int i = tail;
+            while (i > head && batch[i - 1].compareTo(event) > 0) {
+                batch[i] = batch[i - 1];
+                i--;
+            }
+            batch[i] = event;
+            tail++;
+        }
+
+        @Override
+        public void cancel(Event event) {
+            Engine.this.cancel(event);
+        }
+
+        @Override
+        public Event reschedule(Event event, int timestamp) {
+            return Engine.this.reschedule(event,timestamp);
+        }
+    }
+
+    /**
+     * Batch sink that times scheduling and tracks the peak event list size.
+     */
+
+    private class ProfiledSink implements ReschedulingSink {
+
+        @Override
+        public void add(Event event) {
+            long start = System.nanoTime();
+            sink.add(event);
+            prof.scheduleNanos += System.nanoTime() - start;
+            prof.numScheduled++;
+            prof.peakSize = Math.max(prof.peakSize,e.size() + tail - head);
+        }
+
+        @Override
+        public void cancel(Event event) {
+            sink.cancel(event);
+        }
+
+        @Override
+        public Event reschedule(Event event, int timestamp) {
+            long start = System.nanoTime();
+            Event next = sink.reschedule(event,timestamp);
+            prof.scheduleNanos += System.nanoTime() - start;
+            prof.numScheduled++;
+            return next;
+        }
+    }
+
+    /**
+     * Runs the engine until a predetermined time without event objects.
+     * Events are packed into keys of a primitive heap and users are held in slots.
+     * Processes events in the same order as run.
+     * Records to the event log and notifies the tick listener like run, but can't be profiled.
+     *
+     * @param endTime time to run the engine until
+     * @throws IllegalStateException if a profile is attached
+     */
+
+    public void runPacked(int endTime) {
+        if (prof != null) {
+            throw new IllegalStateException("Packed runs can't be profiled, run without a profile");
+        }
+        User[] first = m.initUsers();
+        PackedEventHeap h = new PackedEventHeap(first.length * 2);
+        users = new User[first.length * 2];
+        freeSlots = new int[users.length];
+        numFree = 0;
+        numSlots = 0;
+        //Set first user generation event for each floor
+        for (User u : first) {
+            h.add(0,u.id,PackedEventHeap.GEN,store(u));
+        }
         int time = 0;
-        ArrayList<Event> triggeredEvents;
+        int numEvents = 0;
         //Iterate through list until predetermined end time
         while (time < endTime) {
-            Event curr = e.poll();  //Pop earliest event
-            time = curr.timestamp;  //Advance simulation time
-            triggeredEvents = curr.process(m);  //Polymorphic
-            if (triggeredEvents != null) {      //Add all triggered events
-                triggeredEvents.forEach(event -> {
-                    e.add(event);
-                });
+            long key = h.peekKey(); //Pop earliest event
+            int slot = h.peekSlot();
+            h.remove();
+            time = PackedEventHeap.timestamp(key);  //Advance simulation time
+            User u = users[slot];
+            int type = PackedEventHeap.type(key);
+            switch (type) {
+                case PackedEventHeap.GEN:
+                    h.add(m.genTime(u),u.id,PackedEventHeap.ARR,slot);
+                    break;
+                case PackedEventHeap.ARR:
+                    //Trigger exit event
+                    h.add(m.assignTime(time,u),u.id,PackedEventHeap.EXIT,slot);
+                    //Generate next user
+                    User x = m.pool.user(time,u.src);
+                    h.add(time,x.id,PackedEventHeap.GEN,store(x));
+                    break;
+                case PackedEventHeap.EXIT:
+                    m.exit(time,u);
+                    users[slot] = null;
+                    freeSlots[numFree++] = slot;
+                    break;
+            }
+            if (log != null) {
+                log.record(time,type,u);    //Packed types are numbered as in EngineProfile
+            }
+            numEvents++;
+            //Tick once all events of the timestamp are processed
+            if (tick != null && (time >= endTime || PackedEventHeap.timestamp(h.peekKey()) != time)) {
+                tick.tick(time,numEvents);
+                numEvents = 0;
             }
         }
         return;
     }
-    
+
+    /**
+     * Places a user in a free slot.
+     *
+     * @param u user to store
+     * @return slot of user
+     */
+
+    private int store(User u) {
+        int slot;
+        if (numFree > 0) {
+            slot = freeSlots[--numFree];
+        } else {
+            if (numSlots == users.length) {
+                users = Arrays.copyOf(users,numSlots * 2);
+                freeSlots = Arrays.copyOf(freeSlots,numSlots * 2);
+            }
+            slot = numSlots++;
+        }
+        users[slot] = u;
+        return slot;
+    }
 
 }
 
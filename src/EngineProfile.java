@@ -0,0 +1,115 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Opt-in instrumentation of the engine loop.
+ * Records time spent popping, processing and scheduling events,
+ * event counts per type, the peak event list size and simulation speed.
+ * Attach with Engine.setProfile, the engine runs an uninstrumented loop otherwise.
+ */
+
+public class EngineProfile {
+
+    final static int GEN = 0;
+    final static int ARR = 1;
+    final static int EXIT = 2;
+    final static int PROCESS = 3;
+    final static String[] NAMES = new String[]{"UserGenEvent","UserArrEvent","UserExitEvent","ProcessEvent"};
+
+    long pollNanos;
+    long scheduleNanos;
+    long[] processNanos = new long[NAMES.length];   //Excludes scheduling
+    long[] counts = new long[NAMES.length];
+    long numScheduled;
+    int peakSize;
+    long wallNanos;
+    long simTime;
+
+    /**
+     * Type of event, as an index into the per type records.
+     *
+     * @param e event
+     * @return index of the event type
+     */
+
+    static int kind(Event e) {
+        if (e instanceof UserGenEvent) {
+            return GEN;
+        } else if (e instanceof UserArrEvent) {
+            return ARR;
+        } else if (e instanceof UserExitEvent) {
+            return EXIT;
+        }
+        return PROCESS;
+    }
+
+    /**
+     * Simulated seconds per second of wall time.
+     *
+     * @return simulation speed, 0 if nothing was run
+     */
+
+    public double speed() {
+        if (wallNanos == 0) {
+            return 0;
+        }
+        return simTime / (wallNanos / 1e9);
+    }
+
+    /**
+     * Prints the profile.
+     * Verbose mode, to follow Stats.printStats.
+     */
+
+    public void print() {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        System.out.println("Events Processed: " + total);
+        for (int i = 0; i < NAMES.length; i++) {
+            if (counts[i] != 0) {
+                System.out.println("  " + NAMES[i] + ": " + counts[i] + " events, " + (processNanos[i] / 1000000) + " ms processing, " + (processNanos[i] / counts[i]) + " ns each");
+            }
+        }
+        System.out.println("Time Spent Polling: " + (pollNanos / 1000000) + " ms");
+        System.out.println("Time Spent Scheduling: " + (scheduleNanos / 1000000) + " ms over " + numScheduled + " events");
+        System.out.println("Peak Event List Size: " + peakSize);
+        System.out.println("Wall Time: " + (wallNanos / 1000000) + " ms");
+        System.out.println("Simulated Seconds per Wall Second: " + String.format("%.0f",speed()));
+    }
+
+    /**
+     * Exports the profile as a JSON object.
+     *
+     * @return profile on one line
+     */
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"poll_ns\":").append(pollNanos);
+        sb.append(",\"schedule_ns\":").append(scheduleNanos);
+        sb.append(",\"scheduled\":").append(numScheduled);
+        sb.append(",\"process_ns\":{");
+        appendPerType(sb,processNanos);
+        sb.append("},\"counts\":{");
+        appendPerType(sb,counts);
+        sb.append("},\"peak_fel_size\":").append(peakSize);
+        sb.append(",\"wall_ns\":").append(wallNanos);
+        sb.append(",\"sim_time\":").append(simTime);
+        sb.append(",\"sim_seconds_per_wall_second\":").append(String.format("%.1f",speed()));
+        sb.append("}");
+        return sb.toString();
+    }
+
+    private static void appendPerType(StringBuilder sb, long[] values) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("\"").append(NAMES[i]).append("\":").append(values[i]);
+        }
+    }
+
+}
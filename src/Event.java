@@ -10,6 +10,9 @@ public abstract class Event implements Comparable<Event>{
 
     int timestamp;
     User u;
+    int id;                 //Id of the user when scheduled, orders the event even after the user is recycled
+    boolean cancelled;      //Tombstone, skipped when popped
+    boolean processed;      //Popped for processing, can no longer be cancelled
 
     /**
      * Main constructor for all events.
@@ -18,6 +21,22 @@ public abstract class Event implements Comparable<Event>{
     Event(int timestamp,User u) {
         this.timestamp = timestamp;
         this.u = u;
+        this.id = u == null ? 0 : u.id;
+    }
+
+    /**
+     * Resets a recycled event.
+     *
+     * @param timestamp new time of event
+     * @param u new user of event
+     */
+
+    void reset(int timestamp, User u) {
+        this.timestamp = timestamp;
+        this.u = u;
+        this.id = u == null ? 0 : u.id;
+        this.cancelled = false;
+        this.processed = false;
     }
 
     /**
@@ -34,9 +53,9 @@ public abstract class Event implements Comparable<Event>{
         } else if (this.timestamp > o.timestamp) {
             return 1;
         } else {
-            if (this.u.id < o.u.id) {
+            if (this.id < o.id) {
                 return -1;
-            } else if (this.u.id > o.u.id) {
+            } else if (this.id > o.id) {
                 return 1;
             } else {
                 return 0;
@@ -61,7 +80,7 @@ public abstract class Event implements Comparable<Event>{
         }
         Event o = (Event) obj;
         if (this.timestamp == o.timestamp) {
-            if (this.u.id != o.u.id) {
+            if (this.id != o.id) {
                 return false;
             } else {
                 return true;
@@ -72,12 +91,13 @@ public abstract class Event implements Comparable<Event>{
 
     /**
      * Event processing specific to event type.
+     * Triggered events are scheduled directly into the sink.
      *
      * @param m model to use for processing
-     * @return list of triggered events
+     * @param sink receiver of triggered events
      */
 
-    abstract ArrayList<Event> process(Model m);
+    abstract void process(Model m, EventSink sink);
 
 }
 
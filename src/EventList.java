@@ -0,0 +1,42 @@
+package sim;
+
+/**
+ * Future event list used by the engine.
+ * Implementations must return events in the order given by Event.compareTo.
+ */
+
+public interface EventList extends EventSink {
+
+    /**
+     * Removes the earliest event.
+     *
+     * @return earliest event, null if empty
+     */
+
+    Event poll();
+
+    /**
+     * Returns the earliest event without removing it.
+     *
+     * @return earliest event, null if empty
+     */
+
+    Event peek();
+
+    /**
+     * Number of scheduled events.
+     *
+     * @return size of the event list
+     */
+
+    int size();
+
+    /**
+     * Checks if there are no scheduled events.
+     *
+     * @return true if empty, false otherwise
+     */
+
+    boolean isEmpty();
+
+}
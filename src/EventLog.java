@@ -0,0 +1,250 @@
+package sim;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * Compact binary log of every processed event, for replay and for finding where two runs diverge.
+ * Each record holds the timestamp, event type, user id and, for arrivals and exits, the cab taken.
+ * Timestamps are stored as deltas from the previous record and user ids as zigzag deltas,
+ * both as varints, so a typical record takes 3 to 4 bytes.
+ */
+
+public class EventLog implements Closeable {
+
+    final static int MAGIC = 0x4445534C;    //"DESL"
+    final static String[] NAMES = new String[]{"GEN","ARR","EXIT","PROCESS"};
+
+    private WritableByteChannel ch;
+    private ByteBuffer buf = ByteBuffer.allocateDirect(Checkpoint.BUFFER_SIZE);
+    private int lastTime;
+    private int lastId;
+    private long numRecords;
+
+    /**
+     * Starts a log on a channel.
+     *
+     * @param ch channel to write to, closed with the log
+     */
+
+    public EventLog(WritableByteChannel ch) throws IOException {
+        this.ch = ch;
+        buf.putInt(MAGIC);
+    }
+
+    /**
+     * Starts a log in a file, replacing any existing file.
+     *
+     * @param path file to write to
+     * @return new log
+     */
+
+    public static EventLog create(Path path) throws IOException {
+        return new EventLog(FileChannel.open(path,StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Records a processed event.
+     *
+     * @param timestamp time of the event
+     * @param type type of the event, as in EngineProfile
+     * @param u user of the event, after processing
+     */
+
+    void record(int timestamp, int type, User u) {
+        try {
+            if (buf.remaining() < 32) {
+                flush();
+            }
+            putVarint(timestamp - lastTime);
+            putVarint(zigzag(u.id - (long)lastId) << 2 | type);
+            if (type == EngineProfile.ARR || type == EngineProfile.EXIT) {
+                putVarint(u.cab);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        lastTime = timestamp;
+        lastId = u.id;
+        numRecords++;
+    }
+
+    /**
+     * Number of events recorded.
+     *
+     * @return number of records
+     */
+
+    public long size() {
+        return numRecords;
+    }
+
+    /**
+     * Writes out all buffered records and closes the channel.
+     */
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        ch.close();
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    private void putVarint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte)v);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    /**
+     * Streams the records of a log, one at a time, without allocating per record.
+     */
+
+    public static class Reader implements Closeable {
+        private ReadableByteChannel ch;
+        private ByteBuffer buf = ByteBuffer.allocateDirect(Checkpoint.BUFFER_SIZE);
+        private boolean eof;
+
+        // Current record
+        int timestamp;
+        int type;
+        int id;
+        int cab;
+        long index = -1;
+
+        /**
+         * Opens a log on a channel.
+         *
+         * @param ch channel to read from, closed with the reader
+         */
+
+        public Reader(ReadableByteChannel ch) throws IOException {
+            this.ch = ch;
+            buf.flip();
+            if (!fill() || buf.remaining() < 4 || buf.getInt() != MAGIC) {
+                throw new IOException("Not an event log");
+            }
+        }
+
+        /**
+         * Opens a log file.
+         *
+         * @param path file to read
+         * @return reader at the start of the log
+         */
+
+        public static Reader open(Path path) throws IOException {
+            return new Reader(FileChannel.open(path,StandardOpenOption.READ));
+        }
+
+        /**
+         * Moves to the next record.
+         *
+         * @return true if a record was read, false at the end of the log
+         */
+
+        public boolean next() throws IOException {
+            if (!buf.hasRemaining() && !fill()) {
+                return false;
+            }
+            timestamp += (int)getVarint();
+            long v = getVarint();
+            type = (int)(v & 3);
+            long delta = v >>> 2;
+            id += (int)((delta >>> 1) ^ -(delta & 1));
+            cab = type == EngineProfile.ARR || type == EngineProfile.EXIT ? (int)getVarint() : -1;
+            index++;
+            return true;
+        }
+
+        /**
+         * Checks if the current record equals the current record of another reader.
+         *
+         * @param o other reader
+         * @return true if equal
+         */
+
+        boolean sameRecord(Reader o) {
+            return timestamp == o.timestamp && type == o.type && id == o.id && cab == o.cab;
+        }
+
+        /**
+         * Formats the current record.
+         *
+         * @return index, timestamp, type, user id and cab, cab omitted if none
+         */
+
+        @Override
+        public String toString() {
+            return format(index,timestamp,type,id,cab);
+        }
+
+        /**
+         * Formats a record the way toString prints it.
+         *
+         * @param index position of the record in the log
+         * @param timestamp time of the event
+         * @param type type of the event
+         * @param id id of the user
+         * @param cab cab of the user, negative if none
+         * @return readable record
+         */
+
+        static String format(long index, int timestamp, int type, int id, int cab) {
+            String s = "#" + index + " t=" + timestamp + " " + NAMES[type] + " user " + id;
+            return cab < 0 ? s : s + " cab " + cab;
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+
+        private long getVarint() throws IOException {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (!buf.hasRemaining() && !fill()) {
+                    throw new EOFException("Event log is truncated");
+                }
+                byte b = buf.get();
+                v |= (long)(b & 0x7F) << shift;
+                if (b >= 0) {
+                    return v;
+                }
+            }
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            buf.compact();
+            int n = 0;
+            while (n == 0) {
+                n = ch.read(buf);
+            }
+            buf.flip();
+            if (n < 0) {
+                eof = true;
+                return buf.hasRemaining();
+            }
+            return true;
+        }
+    }
+
+}
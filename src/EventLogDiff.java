@@ -0,0 +1,79 @@
+package sim;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Prints an event log, or compares two logs and reports where they first diverge.
+ * Both logs are streamed once, so comparing takes linear time and constant memory.
+ *
+ * Usage from the compiled classes:
+ *
+ *     java sim.EventLogDiff LOG           prints every record
+ *     java sim.EventLogDiff LOG_A LOG_B   prints the first divergence
+ */
+
+public class EventLogDiff {
+
+    final static int CONTEXT = 5;   //Matching records shown before a divergence
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1) {
+            try (EventLog.Reader r = EventLog.Reader.open(Paths.get(args[0]))) {
+                while (r.next()) {
+                    System.out.println(r);
+                }
+            }
+        } else if (args.length == 2) {
+            try (EventLog.Reader a = EventLog.Reader.open(Paths.get(args[0])); EventLog.Reader b = EventLog.Reader.open(Paths.get(args[1]))) {
+                System.out.println(diff(a,b));
+            }
+        } else {
+            System.out.println("Usage: EventLogDiff LOG [OTHER_LOG]");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Finds the first record where two logs differ.
+     *
+     * @param a first log
+     * @param b second log
+     * @return report of the divergence, with the last matching records before it
+     */
+
+    static String diff(EventLog.Reader a, EventLog.Reader b) throws IOException {
+        //Ring of the last matching records, formatted only once a divergence is found
+        long[] index = new long[CONTEXT];
+        int[] timestamp = new int[CONTEXT];
+        int[] type = new int[CONTEXT];
+        int[] id = new int[CONTEXT];
+        int[] cab = new int[CONTEXT];
+        while (true) {
+            boolean hasA = a.next();
+            boolean hasB = b.next();
+            if (!hasA && !hasB) {
+                return "Identical, " + (a.index + 1) + " events";
+            }
+            if (hasA && hasB && a.sameRecord(b)) {
+                int slot = (int)(a.index % CONTEXT);
+                index[slot] = a.index;
+                timestamp[slot] = a.timestamp;
+                type[slot] = a.type;
+                id[slot] = a.id;
+                cab[slot] = a.cab;
+                continue;
+            }
+            StringBuilder sb = new StringBuilder();
+            long first = Math.max(0,Math.max(a.index,b.index) - CONTEXT);
+            for (long i = first; i < Math.max(a.index,b.index); i++) {
+                int slot = (int)(i % CONTEXT);
+                sb.append("  ").append(EventLog.Reader.format(index[slot],timestamp[slot],type[slot],id[slot],cab[slot])).append("\n");
+            }
+            sb.append("A ").append(hasA ? a.toString() : "ends after " + (a.index + 1) + " events").append("\n");
+            sb.append("B ").append(hasB ? b.toString() : "ends after " + (b.index + 1) + " events");
+            return "Diverge at event " + Math.max(a.index,b.index) + "\n" + sb;
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package sim;
+
+/**
+ * Receives events scheduled while processing an event.
+ */
+
+public interface EventSink {
+
+    /**
+     * Schedules an event.
+     *
+     * @param e event to be scheduled
+     */
+
+    void add(Event e);
+
+}
@@ -0,0 +1,130 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Future event list with one arrival slot per floor.
+ * Each floor always has exactly one pending generation or arrival event,
+ * so those are kept in fixed slots under a tournament tree instead of the heap.
+ * Only exits go to the heap, and the earliest of the two sources is popped.
+ * A second arrival event for an occupied floor, such as after a reschedule, falls back to the heap.
+ * Events are returned in Event.compareTo order, so results match the heap.
+ */
+
+public class FloorSlotEventList implements EventList {
+
+    private Event[] slots;      //Pending generation or arrival event of each floor
+    private long[] keys;        //Order of each slot's event, Long.MAX_VALUE when empty
+    private int[] tree;         //Winning slot of each match, root at 1, leaves at leaves + slot
+    private int leaves;
+    private int numSlotted;
+    private HeapEventList heap;
+
+    /**
+     * Constructs an empty list.
+     *
+     * @param numFloors number of floors
+     */
+
+    public FloorSlotEventList(int numFloors) {
+        leaves = 1;
+        while (leaves < numFloors) {
+            leaves *= 2;
+        }
+        slots = new Event[leaves];
+        keys = new long[leaves];
+        Arrays.fill(keys,Long.MAX_VALUE);
+        tree = new int[leaves * 2];
+        for (int i = 0; i < leaves; i++) {
+            tree[leaves + i] = i;
+        }
+        for (int i = leaves - 1; i > 0; i--) {
+            tree[i] = tree[2 * i];
+        }
+        heap = new HeapEventList(numFloors);
+    }
+
+    //////// Event List Functions ////////
+
+    @Override
+    public void add(Event e) {
+        //Tombstones have no user to slot by
+        if (!e.cancelled && (e instanceof UserGenEvent || e instanceof UserArrEvent)) {
+            int slot = e.u.src - 1;
+            if (slots[slot] == null) {
+                slots[slot] = e;
+                keys[slot] = key(e);
+                numSlotted++;
+                replay(slot);
+                return;
+            }
+        }
+        heap.add(e);
+    }
+
+    @Override
+    public Event poll() {
+        int slot = tree[1];
+        Event other = heap.peek();
+        if (other != null && key(other) < keys[slot]) {
+            return heap.poll();
+        }
+        Event first = slots[slot];
+        if (first == null) {
+            return null;
+        }
+        slots[slot] = null;
+        keys[slot] = Long.MAX_VALUE;
+        numSlotted--;
+        replay(slot);
+        return first;
+    }
+
+    @Override
+    public Event peek() {
+        int slot = tree[1];
+        Event other = heap.peek();
+        if (other != null && key(other) < keys[slot]) {
+            return other;
+        }
+        return slots[slot];
+    }
+
+    @Override
+    public int size() {
+        return numSlotted + heap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return numSlotted == 0 && heap.isEmpty();
+    }
+
+    ////////    ////////
+
+    /**
+     * Replays the matches from a changed slot up to the root.
+     *
+     * @param slot slot whose event changed
+     */
+
+    private void replay(int slot) {
+        for (int i = (leaves + slot) / 2; i > 0; i /= 2) {
+            int a = tree[2 * i];
+            int b = tree[2 * i + 1];
+            tree[i] = keys[b] < keys[a] ? b : a;
+        }
+    }
+
+    /**
+     * Orders events by timestamp then user id, as Event.compareTo does.
+     *
+     * @param e event
+     * @return sort key of the event
+     */
+
+    private static long key(Event e) {
+        return (long)e.timestamp << 32 | (e.id & 0xFFFFFFFFL);
+    }
+
+}
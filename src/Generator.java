@@ -1,36 +1,59 @@
 package sim;
 
+import java.io.*;
+
 /**
  * Holds state variables for generators.
  */
 
 public class Generator {
 
-    static int count = 0;
     int id;
     RNG rng;
 
     /**
      * Constructs a random generator.
      *
-     * @param mean average for generator. Not yet implemented.
+     * @param ctx context of the simulation
+     */
+
+    Generator(SimContext ctx) {
+        id = ctx.nextGenId();
+        rng = new RNG(ctx);
+    }
+
+    /**
+     * Saves the generator to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(id);
+        rng.save(out);
+    }
+
+    /**
+     * Restores the generator from a checkpoint.
+     *
+     * @param in checkpoint to read from
      */
 
-    Generator() {
-        id = count;
-        count++;
-        rng = new RNG();
+    void load(Checkpoint.In in) throws IOException {
+        id = in.getInt();
+        rng = new RNG(in);
     }
 
     /**
      * Returns a random number with a triangular distribution
      *
      * @param currTime current time
+     * @param load arrival rate multiplier
      * @return random time after current time
      */
 
-    int gen(int currTime) {
-        return rng.nextTime() + currTime;
+    int gen(int currTime, double load) {
+        return (int)Math.round(rng.nextTime() / load) + currTime;
     }
         
 }
@@ -0,0 +1,49 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Binary heap future event list.
+ * Default implementation, backed by a priority queue.
+ */
+
+public class HeapEventList implements EventList {
+
+    private PriorityQueue<Event> q;
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param initialCapacity initial capacity of the heap
+     */
+
+    public HeapEventList(int initialCapacity) {
+        q = new PriorityQueue<Event>(Math.max(initialCapacity,1));
+    }
+
+    @Override
+    public void add(Event e) {
+        q.add(e);
+    }
+
+    @Override
+    public Event poll() {
+        return q.poll();
+    }
+
+    @Override
+    public Event peek() {
+        return q.peek();
+    }
+
+    @Override
+    public int size() {
+        return q.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return q.isEmpty();
+    }
+
+}
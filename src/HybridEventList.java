@@ -0,0 +1,131 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Future event list that switches between event-driven and time-stepped execution.
+ * Sparse traffic runs on a binary heap, which skips idle seconds for free.
+ * Dense traffic, where most seconds have events, runs on a time wheel stepping one second at a time.
+ * The share of seconds with events is sampled as events are popped, with hysteresis between modes.
+ * Both lists return events in Event.compareTo order, so results match the heap exactly.
+ */
+
+public class HybridEventList implements EventList {
+
+    final static int WINDOW = 256;          //Distinct timestamps per density sample
+    final static double DENSE = 0.5;        //Step seconds when at least this share has events
+    final static double SPARSE = 0.25;      //Return to the heap below this share
+
+    private EventList heap;
+    private EventList wheel;
+    private EventList curr;
+    private boolean stepped;
+    private int numSwitches;
+
+    // Density sample
+    private int lastTime = -1;
+    private int windowStart;
+    private int numTimes;
+
+    /**
+     * Constructs an empty list, starting event-driven.
+     *
+     * @param initialCapacity initial capacity of the heap
+     */
+
+    public HybridEventList(int initialCapacity) {
+        heap = new HeapEventList(initialCapacity);
+        wheel = new TimeWheel();
+        curr = heap;
+    }
+
+    //////// Event List Functions ////////
+
+    @Override
+    public void add(Event e) {
+        curr.add(e);
+    }
+
+    @Override
+    public Event poll() {
+        Event e = curr.poll();
+        if (e != null && e.timestamp != lastTime) {
+            if (numTimes == 0) {
+                windowStart = e.timestamp;
+            }
+            lastTime = e.timestamp;
+            if (++numTimes == WINDOW) {
+                sample();
+            }
+        }
+        return e;
+    }
+
+    @Override
+    public Event peek() {
+        return curr.peek();
+    }
+
+    @Override
+    public int size() {
+        return curr.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return curr.isEmpty();
+    }
+
+    ////////    ////////
+
+    /**
+     * Checks if the list is currently time-stepped.
+     *
+     * @return true if stepping seconds, false if event-driven
+     */
+
+    public boolean isStepped() {
+        return stepped;
+    }
+
+    /**
+     * Number of switches between modes so far.
+     *
+     * @return number of switches
+     */
+
+    public int numSwitches() {
+        return numSwitches;
+    }
+
+    /**
+     * Measures the share of seconds with events in the last window and switches mode if needed.
+     */
+
+    private void sample() {
+        double density = (double)WINDOW / (lastTime - windowStart + 1);
+        numTimes = 0;
+        if (!stepped && density >= DENSE) {
+            switchTo(wheel);
+            stepped = true;
+        } else if (stepped && density < SPARSE) {
+            switchTo(heap);
+            stepped = false;
+        }
+    }
+
+    /**
+     * Moves all events to another list, earliest first.
+     *
+     * @param next list to switch to
+     */
+
+    private void switchTo(EventList next) {
+        while (!curr.isEmpty()) {
+            next.add(curr.poll());
+        }
+        curr = next;
+        numSwitches++;
+    }
+
+}
@@ -1,5 +1,6 @@
 package sim;
 
+import java.io.*;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.lang.Math;
@@ -12,12 +13,22 @@ public class Model {
 
     public int algo;
 
-    final private int TRAVEL_TIME = 2;
+    final static int TRAVEL_TIME = 2;
+    final static int NOT_BLOCKED = Integer.MIN_VALUE;
     private boolean v;
     private Params p;
     private Stats s;
     private ArrayList<Generator> gens;
-    private ArrayList<Cab> cabs;
+    private CabStore cabs;
+    private long[] eligible;    //Bitset of cabs serving each (source, destination) pair
+    private int[] transfer;     //Floor to change cabs at for each pair no cab serves, 0 if served or unreachable
+    private int words;          //Longs per bitset
+    private CabView view;       //What the strategy sees of the cabs
+    private DispatchStrategy strategy;
+    private DestinationGroups groups;   //Open cab runs of destination dispatch, null when disabled
+    private CabSweeps sweeps;           //Collective sweeps of cabs with capacity, null when disabled
+    Pool pool;      //Creates and recycles users and events
+    SimContext ctx; //Ids and seeds of this simulation
 
     // Current state variables
     private User curr_u;
@@ -35,10 +46,19 @@ public class Model {
         this.p = p;
         this.s = s;
         this.algo = algo;
+        this.ctx = new SimContext(p);
+        this.pool = new Pool(ctx,false);
         //Initiatialize model parameters
         initGens(p.numFloors);
         initCabs(p.numShafts);    
-        User.maxFloor = p.numFloors;
+        initEligible();
+        this.strategy = DispatchStrategy.forAlgo(algo);
+        if (p.groupWindow > 0) {
+            this.groups = new DestinationGroups(p);
+        }
+        if (p.capacity > 0) {
+            this.sweeps = new CabSweeps(p,cabs.size());
+        }
     }
 
 
@@ -47,22 +67,33 @@ public class Model {
     /**
      * Initializes future event list by generating the first user for each floor.
      *
-     * @return initial future event list
+     * @param e future event list to initialize
      */
 
-    PriorityQueue<Event> init() {
+    void init(EventList e) {
+        //Set first user generation event for each floor
+        for (User u : initUsers()) {
+            e.add(pool.genEvent(0,u));
+        }
+    }
+
+    /**
+     * Generates the first user for each floor.
+     *
+     * @return first user of each floor
+     */
+
+    User[] initUsers() {
         if (v) {
             if (v) {
                 System.out.println("Initializing Model");
             }
         }
-        PriorityQueue<Event> e = new PriorityQueue<Event>(p.numFloors);
-        //Set first user generation event for each floor
+        User[] first = new User[p.numFloors];
         for (int i = 0; i < p.numFloors; i++) {
-            User u = new User(0,i+1);
-            e.add(new UserGenEvent(0,u));
+            first[i] = pool.user(0,i+1);
         }
-        return e;
+        return first;
     }
 
     /**
@@ -77,7 +108,7 @@ public class Model {
             System.out.println("Setting up generators");
         }
         for (int i = 0; i < numFloors; i++) {
-            gens.add(new Generator());
+            gens.add(new Generator(ctx));
         }
         return;
     }
@@ -89,16 +120,86 @@ public class Model {
      */
 
     private void initCabs(int numShafts) {
-        this.cabs = new ArrayList<Cab>(numShafts * 2);
         if (v) {
             System.out.println("Setting up cabs");
         }
-        for (int i = 0; i < numShafts; i++) {
-            for (int j = 0; j < p.numStacked; j++) {
-                cabs.add(new Cab(i,j));
+        this.cabs = new CabStore(numShafts,p.numStacked);
+        return;
+    }
+
+    /**
+     * Precomputes which cabs serve each pair of source and destination floors.
+     * Eligibility depends only on the pair, so dispatch never checks bounds.
+     */
+
+    private void initEligible() {
+        words = (cabs.size() + 63) >>> 6;
+        eligible = new long[p.numFloors * p.numFloors * words];
+        for (int src = 1; src <= p.numFloors; src++) {
+            for (int dest = 1; dest <= p.numFloors; dest++) {
+                int base = pair(src,dest);
+                for (int c = 0; c < cabs.size(); c++) {
+                    if (inBounds(c,src,dest)) {
+                        eligible[base + (c >>> 6)] |= 1L << c;
+                    }
+                }
+            }
+        }
+        view = new CabView(this,cabs,eligible,words);
+        initTransfers();
+    }
+
+    /**
+     * Precomputes a transfer floor for each pair of floors no cab serves.
+     * Picks the floor with the shortest total ride, the one nearest the source on ties.
+     * Stacked cabs can't reach the ends of the shaft, so with more than two per shaft
+     * some trips need two cabs.
+     *
+     * @throws IllegalArgumentException if a trip users can make has neither a cab nor a transfer
+     */
+
+    private void initTransfers() {
+        transfer = new int[p.numFloors * p.numFloors];
+        for (int src = 1; src <= p.numFloors; src++) {
+            for (int dest = 1; dest <= p.numFloors; dest++) {
+                if (src == dest || served(src,dest)) {
+                    continue;
+                }
+                int best = 0;
+                for (int t = 1; t <= p.numFloors; t++) {
+                    if (t == src || t == dest || !served(src,t) || !served(t,dest)) {
+                        continue;
+                    }
+                    int ride = Math.abs(t - src) + Math.abs(dest - t);
+                    int bestRide = Math.abs(best - src) + Math.abs(dest - best);
+                    if (best == 0 || ride < bestRide || (ride == bestRide && Math.abs(t - src) < Math.abs(best - src))) {
+                        best = t;
+                    }
+                }
+                if (best == 0 && RNG.generates(src,dest)) {
+                    throw new IllegalArgumentException("No cab or transfer serves trips from floor " + src + " to " + dest);
+                }
+                transfer[(src - 1) * p.numFloors + dest - 1] = best;
             }
         }
-        return;
+    }
+
+    /**
+     * Checks if any cab serves a trip on its own.
+     *
+     * @param src source floor
+     * @param dest destination floor
+     * @return true if a cab serves both floors, false if otherwise
+     */
+
+    private boolean served(int src, int dest) {
+        int base = pair(src,dest);
+        for (int w = 0; w < words; w++) {
+            if (eligible[base + w] != 0) {
+                return true;
+            }
+        }
+        return false;
     }
     ////////    ////////
 
@@ -112,14 +213,25 @@ public class Model {
      */
 
     Event gen(User u) {
+        return pool.arrEvent(genTime(u),u);
+    }
+
+    /**
+     * Schedule new user without creating its event.
+     *
+     * @param u user to be generated
+     * @return time user arrives
+     */
+
+    int genTime(User u) {
         //Generate random timestamp
-        int timestamp = gens.get(u.src - 1).gen(u.arrTime);
+        int timestamp = gens.get(u.src - 1).gen(u.arrTime,p.load);
         //Set arrival time to randomly generated time
         u.arrTime = timestamp;
         if (v) {
             System.out.println("Scheduling user " + u.id + " at time " + u.arrTime);
         }
-        return new UserArrEvent(timestamp,u);
+        return timestamp;
     }
 
 
@@ -135,121 +247,332 @@ public class Model {
      */
 
     Event assign(int timestamp, User u) {
+        return pool.exitEvent(assignTime(timestamp,u),u);
+    }
+
+    /**
+     * Selects the cab to assign to a user with the bound strategy.
+     *
+     * @param timestamp time user arrives
+     * @param u user arriving
+     * @return id of selected cab
+     */
+
+    int select(int timestamp, User u) {
         curr_u = u;
         curr_time = timestamp;
-        Cab assigned = cabs.get(0);
-        Optional<Cab> possible;
-        switch(algo) {
-            // Algorithm avoids collision
-            case 1:
-                possible = cabs.stream()
-                    .filter(cab -> checkBounds(cab))                // Filter for eligible cabs
-                    .map(cab -> findTimeToUsr(cab))                 // Evaluate cost
-                    .filter(cab -> isCollide(cab,curr_time))        // Avoid collision
-                    .min(new Comparator<Cab>() {
-                        @Override
-                        // Cost by time to user
-                        public int compare(Cab o1, Cab o2) {
-                            if (o1.timeToUsr < o2.timeToUsr) {
-                                return -1;
-                            } else if (o1.timeToUsr > o2.timeToUsr) {
-                                return 1;
-                            } else {
-                                return 0;
-                            }
-                        }
-                    });
-                if (possible.isPresent()) {
-                    assigned = possible.get(); 
-                } else {                                            // Collision unavoidable
-                    possible = cabs.stream()
-                        .filter(cab -> checkBounds(cab))
-                        .map(cab -> findTimeToUsr(cab))
-                        .min(new Comparator<Cab>() {
-                            @Override
-                            public int compare(Cab o1, Cab o2) {
-                                if (o1.timeToUsr < o2.timeToUsr) {
-                                    return -1;
-                                } else if (o1.timeToUsr > o2.timeToUsr) {
-                                    return 1;
-                                } else {
-                                    return 0;
-                                }
-                            }
-                        });
-                    assigned = possible.get();
-                }
-                break;
-            // Algorithm accounts for collision in cost
-            case 2:
-                possible = cabs.stream()
-                    .filter(cab -> checkBounds(cab))        // Filter for eligible cabs
-                    .map(cab -> findTimeToUsr(cab))         // Evaluate cost
-                    .min(new Comparator<Cab>() {
-                        @Override
-                        // Cost by time to user including collision
-                        public int compare(Cab o1, Cab o2) {
-                            if (o1.timeToUsrCollide < o2.timeToUsrCollide) {
-                                return -1;
-                            } else if (o1.timeToUsrCollide > o2.timeToUsrCollide) {
-                                return 1;
-                            } else {
-                                return 0;
-                            }
-                        }
-                    });
-                assigned = possible.get(); 
-                break;
+        view.base = pair(u.src,u.dest);
+        int c = strategy.select(view,u);
+        if (c == CabView.NONE) {
+            throw new NoSuchElementException("No cab serves user " + u.id + " from " + u.src + " to " + u.dest);
+        }
+        return c;
+    }
+
+    /**
+     * Assign a cab to a user without creating its exit event.
+     * Users no cab serves ride to their transfer floor, and a second cab is assigned from there.
+     * Waiting at the transfer floor counts as waiting for a cab.
+     *
+     * @param timestamp time user arrives
+     * @param u user arriving
+     * @return time user exits
+     */
+
+    int assignTime(int timestamp, User u) {
+        s.numIn++;
+        int t = transfer[(u.src - 1) * p.numFloors + u.dest - 1];
+        if (t == 0) {
+            return assignLeg(timestamp,u);
+        }
+        // Ride to the transfer floor, then on from there when the first cab gets in
+        int src = u.src;
+        int dest = u.dest;
+        u.dest = t;
+        int arrival = assignLeg(timestamp,u);
+        if (v) {
+            System.out.println("User " + u.id + " transfers at floor " + t + " at " + arrival);
+        }
+        u.src = t;
+        u.dest = dest;
+        int exitTime = assignLeg(arrival,u);
+        u.src = src;
+        s.numTransfers++;
+        return exitTime;
+    }
+
+    /**
+     * Assign a cab to a user for a trip some cab serves.
+     *
+     * @param timestamp time user is ready to board
+     * @param u user boarding
+     * @return time user gets off
+     */
+
+    private int assignLeg(int timestamp, User u) {
+        if (groups != null) {
+            int exitTime = join(timestamp,u);
+            if (exitTime != DestinationGroups.NONE) {
+                return exitTime;
+            }
+        }
+        int assigned = select(timestamp,u);
+        if (sweeps != null) {
+            int exitTime = ride(timestamp,u,cabs.timeToUsrCollide[assigned]);
+            if (exitTime != CabSweeps.NONE) {
+                return exitTime;
+            }
         }
 
         // Time elevator travels, including travelling to pickup user
         int nextTime = 0;
-        Cab other = otherCab(assigned);
         // Time to destination equals to the time to reach user added to the time to traverse to destination
-        nextTime = assigned.timeToUsrCollide + Math.abs(curr_u.dest - curr_u.src) * TRAVEL_TIME;  
-        // Move other cab if in the way
-        // First check if collision occurs when assigned cab is free
-        if (!isCollide(assigned,Math.max(curr_time,assigned.nextAvail))) {
-            // Move other cab when assigned cab is available
-            if (other.pos == 1) {
-                // Move to one above for upper cab
-                int curr = Math.max(curr_u.src,curr_u.dest) + 1;
-                if (other.dest < curr) {
-                    other.nextAvail = curr_time + Math.abs(curr - other.dest) * TRAVEL_TIME;
-                    other.dest = curr;
-                } 
-            } else {
-                // Move to one below for lower cab
-                int curr = Math.min(curr_u.src,curr_u.dest) - 1;
-                if (other.dest > curr) {
-                    other.nextAvail = curr_time + Math.abs(curr - other.dest) * TRAVEL_TIME;
-                    other.dest = curr;
-                } 
+        nextTime = cabs.timeToUsrCollide[assigned] + Math.abs(curr_u.dest - curr_u.src) * TRAVEL_TIME;  
+        // Move adjacent cabs if in the way, checked from when assigned cab is free
+        clearNeighbours(assigned,Math.max(curr_time,cabs.nextAvail[assigned]));
+        // Update state
+        cabs.dest[assigned] = curr_u.dest;
+        cabs.nextAvail[assigned] = nextTime;
+        curr_u.cab = assigned;
+        if (v) {
+            System.out.println("Cab " + assigned + " assigned to user " + u.id + " from " + u.src + " to " + u.dest + " and reaches destination at " + nextTime);
+        }
+        // Update stats
+        s.totTimeWait += cabs.timeToUsrCollide[assigned] - curr_time;
+        if (sweeps != null) {
+            sweeps.start(assigned,u.src,u.dest,cabs.timeToUsrCollide[assigned],nextTime);
+        }
+        if (groups != null) {
+            // Later users headed the same way may join this run
+            groups.open(groups.slot(u.src,u.dest),assigned,curr_time,cabs.timeToUsrCollide[assigned],u.dest,nextTime);
+            s.numGroups++;
+            s.totGroupTime += nextTime - cabs.timeToUsrCollide[assigned];
+        }
+        return nextTime;
+    }
+
+    /**
+     * Adds a user to the open cab run of their floor and destination zone, if it can still take them.
+     * A run takes users until its window closes or the cab leaves their floor,
+     * and only while the cab has not been given another trip or moved out of the way since.
+     * Destinations past the end of the run extend it, unless an adjacent cab is busy in the way.
+     *
+     * @param timestamp time user arrives
+     * @param u user arriving
+     * @return time user exits, DestinationGroups.NONE if the user must start a new run
+     */
+
+    int join(int timestamp, User u) {
+        int slot = groups.slot(u.src,u.dest);
+        int c = groups.cab[slot];
+        if (c == DestinationGroups.NONE) {
+            return DestinationGroups.NONE;
+        }
+        // Check if run is still open and the cab is still on it
+        if (timestamp - groups.openTime[slot] > groups.window || timestamp > groups.departure[slot]) {
+            return DestinationGroups.NONE;
+        }
+        if (cabs.nextAvail[c] != groups.endTime[slot] || cabs.dest[c] != groups.end[slot] || !inBounds(c,u.src,u.dest)) {
+            return DestinationGroups.NONE;
+        }
+        if (sweeps != null && !sweeps.fits(c,u.src,u.dest)) {
+            return DestinationGroups.NONE;
+        }
+        curr_u = u;
+        curr_time = timestamp;
+        int departure = groups.departure[slot];
+        // Extend run if user goes past its end, destinations of a slot are all on the same side of the floor
+        if (Math.abs(u.dest - u.src) > Math.abs(groups.end[slot] - u.src)) {
+            // An adjacent cab busy in the way when the run leaves can't be cleared, the user starts a new run
+            if (blockedUntil(c,departure) != NOT_BLOCKED) {
+                return DestinationGroups.NONE;
             }
-        } else { 
-            // Move other cab when it is available
-            other.nextAvail = other.nextAvail + (Math.abs(other.dest - curr_u.dest) + 1) * TRAVEL_TIME;
-            if (other.pos == 1) {
-                other.dest = curr_u.dest + 1;
-            } else {
-                other.dest = curr_u.dest - 1;
+            int extra = Math.abs(u.dest - groups.end[slot]) * TRAVEL_TIME;
+            clearNeighbours(c,departure);
+            cabs.dest[c] = u.dest;
+            cabs.nextAvail[c] += extra;
+            groups.end[slot] = u.dest;
+            groups.endTime[slot] = cabs.nextAvail[c];
+            s.totGroupTime += extra;
+            if (sweeps != null) {
+                sweeps.endTime[c] = cabs.nextAvail[c];
             }
         }
-        // Update state
-        assigned.dest = curr_u.dest;
-        assigned.nextAvail = nextTime;
-        curr_u.cab = assigned.id;
+        if (sweeps != null) {
+            sweeps.board(c,u.src,u.dest);
+        }
+        u.cab = c;
+        int exitTime = departure + Math.abs(u.dest - u.src) * TRAVEL_TIME;
         if (v) {
-            System.out.println("Cab " + assigned.id + " assigned to user " + u.id + " from " + u.src + " to " + u.dest + " and reaches destination at " + nextTime);
+            System.out.println("User " + u.id + " joins cab " + c + " leaving floor " + u.src + " at " + departure + " and reaches " + u.dest + " at " + exitTime);
         }
         // Update stats
-        s.numIn++;
-        s.totTimeWait += assigned.timeToUsrCollide - curr_time;
-        return new UserExitEvent(nextTime,u);
+        s.totTimeWait += departure - timestamp;
+        s.numJoined++;
+        s.totJoinWait += departure - timestamp;
+        return exitTime;
+    }
+
+    /**
+     * Boards a user on the cab sweep reaching their floor first, if no cab on a trip of its own would be sooner.
+     * Only cabs serving the trip, sweeping the user's way, not past their floor yet and
+     * below capacity all the way to their destination are considered.
+     * Destinations past the last stop extend the sweep, unless an adjacent cab is busy in the way.
+     *
+     * @param timestamp time user arrives
+     * @param u user arriving
+     * @param fresh time the selected cab would reach the user on a trip of its own
+     * @return time user exits, CabSweeps.NONE if the user must start a new trip
+     */
+
+    int ride(int timestamp, User u, int fresh) {
+        int best = CabSweeps.NONE;
+        int pickup = fresh;
+        int base = pair(u.src,u.dest);
+        for (int w = 0; w < words; w++) {
+            for (long bits = eligible[base + w]; bits != 0; bits &= bits - 1) {
+                int c = w << 6 | Long.numberOfTrailingZeros(bits);
+                int t = sweeps.pickup(c,u.src,u.dest,cabs.nextAvail[c]);
+                // Ties go to the first sweep, and to a sweep over a trip of its own
+                if (t < timestamp || t > pickup || (t == pickup && best != CabSweeps.NONE)) {
+                    continue;
+                }
+                // An adjacent cab busy in the way of an extension can't be cleared
+                if ((u.dest - cabs.dest[c]) * sweeps.dir[c] > 0 && blockedUntil(c,t) != NOT_BLOCKED) {
+                    continue;
+                }
+                if (sweeps.fits(c,u.src,u.dest)) {
+                    best = c;
+                    pickup = t;
+                }
+            }
+        }
+        if (best == CabSweeps.NONE) {
+            return CabSweeps.NONE;
+        }
+        // Extend sweep if user goes past its last stop
+        if ((u.dest - cabs.dest[best]) * sweeps.dir[best] > 0) {
+            int extra = Math.abs(u.dest - cabs.dest[best]) * TRAVEL_TIME;
+            clearNeighbours(best,pickup);
+            cabs.dest[best] = u.dest;
+            cabs.nextAvail[best] += extra;
+            sweeps.endTime[best] = cabs.nextAvail[best];
+        }
+        sweeps.board(best,u.src,u.dest);
+        u.cab = best;
+        int exitTime = pickup + Math.abs(u.dest - u.src) * TRAVEL_TIME;
+        if (v) {
+            System.out.println("User " + u.id + " boards cab " + best + " sweeping past floor " + u.src + " at " + pickup + " and reaches " + u.dest + " at " + exitTime);
+        }
+        // Update stats
+        s.totTimeWait += pickup - timestamp;
+        s.numShared++;
+        return exitTime;
+    }
+
+    /**
+     * Moves the cabs adjacent to an assigned cab out of the way of the current user.
+     *
+     * @param c id of assigned cab
+     * @param free time the assigned cab is free
+     */
+
+    void clearNeighbours(int c, int free) {
+        if (cabs.above[c] != CabStore.NONE) {
+            clearAbove(cabs.above[c],free);
+        }
+        if (cabs.below[c] != CabStore.NONE) {
+            clearBelow(cabs.below[c],free);
+        }
+    }
+
+    /**
+     * Moves the cab above an assigned cab out of the way of the current user.
+     * Cabs further up are pushed along if the moved cab would reach them.
+     *
+     * @param other id of cab above
+     * @param free time the assigned cab is free
+     */
+
+    void clearAbove(int other, int free) {
+        if (!blocksAbove(other,free)) {
+            // Move to one above when assigned cab is available
+            int curr = Math.min(Math.max(curr_u.src,curr_u.dest) + 1,highest(other));
+            if (cabs.dest[other] < curr) {
+                cabs.nextAvail[other] = curr_time + Math.abs(curr - cabs.dest[other]) * TRAVEL_TIME;
+                cabs.dest[other] = curr;
+            } 
+        } else { 
+            // Move other cab when it is available
+            cabs.nextAvail[other] = cabs.nextAvail[other] + (Math.abs(cabs.dest[other] - curr_u.dest) + 1) * TRAVEL_TIME;
+            cabs.dest[other] = Math.min(curr_u.dest + 1,highest(other));
+        }
+        // Push cabs further up out of the way of the moved cab
+        for (int next = cabs.above[other]; next != CabStore.NONE && cabs.dest[next] <= cabs.dest[other]; next = cabs.above[next]) {
+            int curr = Math.min(cabs.dest[other] + 1,highest(next));
+            int start = cabs.getAvail(next,curr_time) ? curr_time : cabs.nextAvail[next];
+            cabs.nextAvail[next] = start + Math.abs(curr - cabs.dest[next]) * TRAVEL_TIME;
+            cabs.dest[next] = curr;
+            other = next;
+        }
+    }
+
+    /**
+     * Moves the cab below an assigned cab out of the way of the current user.
+     * Cabs further down are pushed along if the moved cab would reach them.
+     *
+     * @param other id of cab below
+     * @param free time the assigned cab is free
+     */
+
+    void clearBelow(int other, int free) {
+        if (!blocksBelow(other,free)) {
+            // Move to one below when assigned cab is available
+            int curr = Math.max(Math.min(curr_u.src,curr_u.dest) - 1,lowest(other));
+            if (cabs.dest[other] > curr) {
+                cabs.nextAvail[other] = curr_time + Math.abs(curr - cabs.dest[other]) * TRAVEL_TIME;
+                cabs.dest[other] = curr;
+            } 
+        } else { 
+            // Move other cab when it is available
+            cabs.nextAvail[other] = cabs.nextAvail[other] + (Math.abs(cabs.dest[other] - curr_u.dest) + 1) * TRAVEL_TIME;
+            cabs.dest[other] = Math.max(curr_u.dest - 1,lowest(other));
+        }
+        // Push cabs further down out of the way of the moved cab
+        for (int next = cabs.below[other]; next != CabStore.NONE && cabs.dest[next] >= cabs.dest[other]; next = cabs.below[next]) {
+            int curr = Math.max(cabs.dest[other] - 1,lowest(next));
+            int start = cabs.getAvail(next,curr_time) ? curr_time : cabs.nextAvail[next];
+            cabs.nextAvail[next] = start + Math.abs(curr - cabs.dest[next]) * TRAVEL_TIME;
+            cabs.dest[next] = curr;
+            other = next;
+        }
+    }
+
+    /**
+     * Finds the lowest floor a cab can reach, leaving a floor for each cab below it.
+     *
+     * @param c id of cab
+     * @return lowest reachable floor
+     */
+
+    int lowest(int c) {
+        return cabs.pos[c] + 1;
+    }
+
+    /**
+     * Finds the highest floor a cab can reach, leaving a floor for each cab above it.
+     *
+     * @param c id of cab
+     * @return highest reachable floor
+     */
+
+    int highest(int c) {
+        return p.numFloors - p.numStacked + 1 + cabs.pos[c];
     }
 
     /**
      * Removes user from the system and computes statistics.
+     * User is recycled and must not be used afterwards.
      *
      * @param timestamp time user exits
      * @param u user exiting
@@ -259,10 +582,10 @@ public class Model {
         if (v) {
             System.out.println("User " + u.id + " exits at time " + timestamp);
         }
-        Cab cab = cabs.get(u.cab);
-        cab.curr = u.dest;  //Update cab's current position
+        cabs.curr[u.cab] = u.dest;  //Update cab's current position
         s.numOut++;         //Update user exit stats
         s.totTime += (timestamp - u.arrTime);   //Update total time stats
+        pool.recycle(u);
         return;
 
     }
@@ -270,20 +593,157 @@ public class Model {
     ////////    ////////
 
 
+    //////// Checkpoint Functions ////////
+
+    /**
+     * Saves the model state to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(algo);
+        ctx.save(out);
+        s.save(out);
+        out.putInt(cabs.size());
+        cabs.save(out);
+        out.putInt(gens.size());
+        for (Generator gen : gens) {
+            gen.save(out);
+        }
+        out.putBoolean(groups != null);
+        if (groups != null) {
+            groups.save(out);
+        }
+        out.putBoolean(sweeps != null);
+        if (sweeps != null) {
+            sweeps.save(out);
+        }
+    }
+
+    /**
+     * Restores the model state from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    void load(Checkpoint.In in) throws IOException {
+        int saved = in.getInt();
+        if (saved != algo) {
+            setAlgo(saved);
+        }
+        ctx.load(in);
+        s.load(in);
+        if (in.getInt() != cabs.size()) {
+            throw new IOException("Checkpoint has a different number of cabs");
+        }
+        cabs.load(in);
+        if (in.getInt() != gens.size()) {
+            throw new IOException("Checkpoint has a different number of floors");
+        }
+        for (Generator gen : gens) {
+            gen.load(in);
+        }
+        // Groups and sweeps are dropped or start empty when the dispatch mode differs, as in a fork
+        if (in.getBoolean()) {
+            if (groups != null) {
+                groups.load(in);
+            } else {
+                DestinationGroups.skip(in);
+            }
+        }
+        if (in.getBoolean()) {
+            if (sweeps != null) {
+                sweeps.load(in);
+            } else {
+                CabSweeps.skip(in);
+            }
+        }
+    }
+
+    ////////    ////////
+
     //////// Utility Functions ////////
 
+    Params getParams() {
+        return p;
+    }
+
+    /**
+     * Reseeds the simulation and all floor generators.
+     * Users already generated keep their destinations.
+     *
+     * @param seed new simulation seed
+     */
+
+    void reseed(long seed) {
+        ctx.setSeed(seed);
+        for (Generator gen : gens) {
+            gen.rng.r.setSeed(ctx.seedFor(gen.rng.id));
+        }
+    }
+
+    /**
+     * Binds the strategy of a numbered algorithm.
+     *
+     * @param algo algorithm number
+     */
+
+    void setAlgo(int algo) {
+        this.algo = algo;
+        this.strategy = DispatchStrategy.forAlgo(algo);
+    }
+
+    /**
+     * Binds a dispatch strategy in place of the one of the algorithm number.
+     * Checkpoints still record the algorithm number, so restore into a model with the same strategy bound.
+     *
+     * @param strategy strategy to dispatch users with
+     */
+
+    void setStrategy(DispatchStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    int currTime() {
+        return curr_time;
+    }
+
+    /**
+     * State of all cabs.
+     *
+     * @return cab store, indexed by cab id
+     */
+
+    CabStore getCabs() {
+        return cabs;
+    }
+
     /**
      * Checks if cab is moving within its set bounds.
-     * Only works for 2 cabs in a shaft.
      *
-     * @param cab cab to check
+     * @param c id of cab to check
      * @return true if cab is within bounds, false if otherwise
      */
 
-    boolean checkBounds(Cab cab) {
-        int pos_bound = cab.pos * 2;
-        if (curr_u.src >= p.bounds[pos_bound] && curr_u.src <= p.bounds[pos_bound + 1]) {
-            if (curr_u.dest >= p.bounds[pos_bound] && curr_u.dest <= p.bounds[pos_bound + 1]) {
+    boolean checkBounds(int c) {
+        return inBounds(c,curr_u.src,curr_u.dest);
+    }
+
+    /**
+     * Checks if a trip lies within the bounds of a cab.
+     * Bounds are looked up by the position of the cab in its shaft.
+     *
+     * @param c id of cab to check
+     * @param src source floor
+     * @param dest destination floor
+     * @return true if both floors are within bounds, false if otherwise
+     */
+
+    boolean inBounds(int c, int src, int dest) {
+        int pos_bound = cabs.pos[c] * 2;
+        if (src >= p.bounds[pos_bound] && src <= p.bounds[pos_bound + 1]) {
+            if (dest >= p.bounds[pos_bound] && dest <= p.bounds[pos_bound + 1]) {
                 return true;
             }
         }
@@ -291,83 +751,107 @@ public class Model {
     }
 
     /**
-     * Looks for other cab in the same shaft.
+     * Index of the eligibility bitset of a trip.
      *
-     * @param cab cab to check
-     * @return other cab in shaft
+     * @param src source floor
+     * @param dest destination floor
+     * @return index of the first long of the bitset
      */
 
-    Cab otherCab(Cab cab) {
-        Cab sameShaft;
-        if (cab.pos == 0) {
-            sameShaft = cabs.get(cab.shaft * 2 + 1);
-        } else {
-            sameShaft = cabs.get(cab.shaft * 2);
-        }
-        return sameShaft;
+    private int pair(int src, int dest) {
+        return ((src - 1) * p.numFloors + (dest - 1)) * words;
     }
 
     /**
-     * Check if cab will collide with other cabs in the same shaft.
+     * Check if cab will collide with adjacent cabs in the same shaft.
      *
-     * @param cab cab to check
+     * @param c id of cab to check
      * @param time time to check
      * @return true if collision occurs, false if otherwise
      */
 
-    boolean isCollide(Cab cab, int time) {
-        Cab sameShaft = otherCab(cab);
+    boolean isCollide(int c, int time) {
+        return blockedUntil(c,time) != NOT_BLOCKED;
+    }
+
+    /**
+     * Finds when the adjacent cabs blocking the current user are free.
+     * Cabs further up or down the shaft are kept out of the way by the adjacent ones.
+     *
+     * @param c id of cab to check
+     * @param time time to check
+     * @return latest next available time of the blocking cabs, NOT_BLOCKED if none block
+     */
+
+    int blockedUntil(int c, int time) {
+        int until = NOT_BLOCKED;
+        int other = cabs.above[c];
+        if (other != CabStore.NONE && blocksAbove(other,time)) {
+            until = cabs.nextAvail[other];
+        }
+        other = cabs.below[c];
+        if (other != CabStore.NONE && blocksBelow(other,time)) {
+            until = Math.max(until,cabs.nextAvail[other]);
+        }
+        return until;
+    }
+
+    /**
+     * Check if a cab above is in the way of the current user.
+     *
+     * @param other id of cab above
+     * @param time time to check
+     * @return true if the cab is busy and does not clear both floors, false if otherwise
+     */
+
+    boolean blocksAbove(int other, int time) {
         // Check if cab is free to move
-        if (sameShaft.getAvail(time)) {
+        if (cabs.getAvail(other,time)) {
             return false;
         }
         // If not free to move, check if both source and destination is intercepted
-        if (cab.pos == 0){
-            if (curr_u.src < sameShaft.dest && curr_u.dest < sameShaft.dest) {
-                return false;
-            }
-        }
-        else{
-            if (curr_u.src > sameShaft.dest && curr_u.dest > sameShaft.dest){
-                return false;
-            }
+        return !(curr_u.src < cabs.dest[other] && curr_u.dest < cabs.dest[other]);
+    }
+
+    /**
+     * Check if a cab below is in the way of the current user.
+     *
+     * @param other id of cab below
+     * @param time time to check
+     * @return true if the cab is busy and does not clear both floors, false if otherwise
+     */
+
+    boolean blocksBelow(int other, int time) {
+        // Check if cab is free to move
+        if (cabs.getAvail(other,time)) {
+            return false;
         }
-        return true;
+        // If not free to move, check if both source and destination is intercepted
+        return !(curr_u.src > cabs.dest[other] && curr_u.dest > cabs.dest[other]);
     }
 
     /**
      * Finds the time it takes to the user, with and without collision.
+     * Stores both in the scratch columns of the cab.
      * 
-     * @param cab cab to check
-     * @return cab with updated times
+     * @param c id of cab to check
      */
 
-    Cab findTimeToUsr(Cab cab) {
-        Cab other = otherCab(cab);
+    void findTimeToUsr(int c) {
+        int toUsr = TRAVEL_TIME * Math.abs(cabs.dest[c] - curr_u.src);
         // If cab is currently available, use current time
-        if (cab.getAvail(curr_time)){
-            // Check if cab will collide given current state
-            if (!isCollide(cab,curr_time)) {
-                cab.timeToUsrCollide = curr_time + (TRAVEL_TIME * Math.abs(cab.dest - curr_u.src));
-            } else {
-                // Wait for other cab to be free
-                // Next available time for other is always more as collision was triggered
-                cab.timeToUsrCollide = other.nextAvail + (TRAVEL_TIME * Math.abs(cab.dest - curr_u.src)); 
-            }
-            cab.timeToUsr = curr_time + (TRAVEL_TIME * Math.abs(cab.dest - curr_u.src));
-        }
         // If cab is currently unavailable, need to offload passengers first, use next available time
-        else {
-            if (!isCollide(cab,cab.nextAvail)) {
-                cab.timeToUsrCollide = cab.nextAvail + (TRAVEL_TIME * Math.abs(cab.dest - curr_u.src));
-            } else {
-                // Wait for other cab to be free
-                // Next available time for other is always more as collision was triggered
-                cab.timeToUsrCollide = other.nextAvail + (TRAVEL_TIME * Math.abs(cab.dest - curr_u.src)); 
-            }
-            cab.timeToUsr = cab.nextAvail + (TRAVEL_TIME * Math.abs(cab.dest - curr_u.src));
-        }   
-        return cab;
+        int start = cabs.getAvail(c,curr_time) ? curr_time : cabs.nextAvail[c];
+        // Check if cab will collide given state at start
+        int blocked = blockedUntil(c,start);
+        if (blocked == NOT_BLOCKED) {
+            cabs.timeToUsrCollide[c] = start + toUsr;
+        } else {
+            // Wait for blocking cabs to be free
+            // Next available time of a blocking cab is always more as collision was triggered
+            cabs.timeToUsrCollide[c] = blocked + toUsr;
+        }
+        cabs.timeToUsr[c] = start + toUsr;
     }
 
     ////////    ////////
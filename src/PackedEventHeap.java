@@ -0,0 +1,162 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Allocation free future event list of packed keys.
+ * Each event is a single long holding its timestamp, user id and event type,
+ * kept in a 4-ary heap with the user's slot in a parallel int array.
+ * Keys order by timestamp, then user id, the same as Event.compareTo.
+ *
+ * Key layout: timestamp (bits 33-62) | user id (bits 2-32) | type (bits 0-1)
+ */
+
+public class PackedEventHeap {
+
+    // Event types
+    final static int GEN = 0;
+    final static int ARR = 1;
+    final static int EXIT = 2;
+
+    final static int MAX_TIME = (1 << 30) - 1;
+
+    private long[] keys;
+    private int[] slots;
+    private int size;
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param initialCapacity initial capacity of the heap
+     */
+
+    public PackedEventHeap(int initialCapacity) {
+        initialCapacity = Math.max(initialCapacity,4);
+        keys = new long[initialCapacity];
+        slots = new int[initialCapacity];
+        size = 0;
+    }
+
+    //////// Key Functions ////////
+
+    static long pack(int timestamp, int id, int type) {
+        return ((long)timestamp << 33) | ((long)id << 2) | type;
+    }
+
+    static int timestamp(long key) {
+        return (int)(key >>> 33);
+    }
+
+    static int id(long key) {
+        return (int)((key >>> 2) & 0x7FFFFFFF);
+    }
+
+    static int type(long key) {
+        return (int)(key & 3);
+    }
+
+    ////////    ////////
+
+    //////// Heap Functions ////////
+
+    /**
+     * Schedules an event.
+     *
+     * @param timestamp time of event
+     * @param id id of user, used to break ties
+     * @param type event type
+     * @param slot slot of user in the engine
+     */
+
+    void add(int timestamp, int id, int type, int slot) {
+        if (timestamp > MAX_TIME) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " exceeds " + MAX_TIME);
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys,size * 2);
+            slots = Arrays.copyOf(slots,size * 2);
+        }
+        long key = pack(timestamp,id,type);
+        // Sift up
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >> 2;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            slots[i] = slots[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+        size++;
+    }
+
+    /**
+     * Key of the earliest event. Heap must not be empty.
+     *
+     * @return packed key
+     */
+
+    long peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * User slot of the earliest event. Heap must not be empty.
+     *
+     * @return slot of user
+     */
+
+    int peekSlot() {
+        return slots[0];
+    }
+
+    /**
+     * Removes the earliest event.
+     */
+
+    void remove() {
+        size--;
+        if (size == 0) {
+            return;
+        }
+        long key = keys[size];
+        int slot = slots[size];
+        // Sift down
+        int i = 0;
+        while (true) {
+            int child = (i << 2) + 1;
+            if (child >= size) {
+                break;
+            }
+            int min = child;
+            int last = Math.min(child + 4,size);
+            for (int c = child + 1; c < last; c++) {
+                if (keys[c] < keys[min]) {
+                    min = c;
+                }
+            }
+            if (key <= keys[min]) {
+                break;
+            }
+            keys[i] = keys[min];
+            slots[i] = slots[min];
+            i = min;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    ////////    ////////
+
+}
@@ -11,6 +11,12 @@ public class Params {
     int numShafts;
     int numStacked;
     int[] bounds;
+    boolean seeded;
+    long seed;
+    double load = 1;        //Arrival rate multiplier
+    int groupWindow;        //Destination dispatch window, 0 to give every user their own trip
+    int groupSpread = 1;    //Floors per destination zone of a group
+    int capacity;           //Riders per cab on collective sweeps, 0 for a trip per user
 
     /**
      * Construct parameters
@@ -18,14 +24,87 @@ public class Params {
      * @param numFloors number of floors
      * @param numShafts number of shafts
      * @param numStacked number of cabs in each shaft
-     * @param bounds level bounds for each cab
+     * @param bounds lowest and highest floor of each cab in a shaft, bottom cab first, leaving a floor for each cab below and above
      */
 
     public Params(int numFloors, int numShafts, int numStacked, int[] bounds) {
+        if (numStacked < 1 || bounds.length != numStacked * 2) {
+            throw new IllegalArgumentException("Need a lowest and highest floor for each of the " + numStacked + " stacked cabs");
+        }
+        for (int j = 0; j < numStacked; j++) {
+            // Cabs can't pass, so each cab must leave a floor for every cab below and above it
+            if (bounds[j * 2] < j + 1 || bounds[j * 2 + 1] > numFloors - (numStacked - 1 - j) || bounds[j * 2] > bounds[j * 2 + 1]) {
+                throw new IllegalArgumentException("Cab " + j + " can only serve floors " + (j + 1) + " to " + (numFloors - (numStacked - 1 - j)) + " with " + numStacked + " stacked cabs");
+            }
+        }
         this.numFloors = numFloors;
         this.numShafts = numShafts;
         this.numStacked = numStacked;
         this.bounds = bounds;
+        this.seeded = false;
+    }
+
+    /**
+     * Construct parameters with seeded random number generators.
+     * Runs with the same seed produce the same results.
+     *
+     * @param numFloors number of floors
+     * @param numShafts number of shafts
+     * @param numStacked number of cabs in each shaft
+     * @param bounds lowest and highest floor of each cab in a shaft, bottom cab first
+     * @param seed seed for all random number generators
+     */
+
+    public Params(int numFloors, int numShafts, int numStacked, int[] bounds, long seed) {
+        this(numFloors,numShafts,numStacked,bounds);
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * Scales the arrival rate of every floor.
+     * Inter-arrival times are divided by the load, so a load of 2 doubles the traffic.
+     *
+     * @param load arrival rate multiplier, 1 for the measured traffic
+     */
+
+    public void setLoad(double load) {
+        if (load <= 0) {
+            throw new IllegalArgumentException("Load must be positive");
+        }
+        this.load = load;
+    }
+
+    /**
+     * Enables destination dispatch.
+     * Users arriving on the same floor within the window, headed the same way to the same zone
+     * of floors, share the cab run of the first of them while it has not left their floor.
+     *
+     * @param window seconds a group stays open after its first user, 0 to disable
+     * @param spread floors per destination zone, 1 to group the same destination only
+     */
+
+    public void setGrouping(int window, int spread) {
+        if (window < 0 || spread < 1) {
+            throw new IllegalArgumentException("Window must not be negative and zones need at least one floor");
+        }
+        this.groupWindow = window;
+        this.groupSpread = spread;
+    }
+
+    /**
+     * Enables collective service with a passenger capacity per cab.
+     * Users can board a cab already sweeping their way at any floor it has not passed,
+     * as long as it stays within capacity, and are dropped off at their own stop.
+     *
+     * @param capacity riders per cab, 0 to give every user their own trip
+     */
+
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        this.capacity = capacity;
     }
 
 }
@@ -0,0 +1,46 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Passenger of the elevator model written as a process.
+ * Same behaviour as the generation, arrival and exit events.
+ */
+
+public class PassengerProcess extends SimProcess {
+
+    final static int GEN = 0;
+    final static int ARR = 1;
+    final static int EXIT = 2;
+
+    /**
+     * Constructs a passenger about to be generated.
+     *
+     * @param u user of the passenger
+     */
+
+    PassengerProcess(User u) {
+        super(u);
+    }
+
+    @Override
+    void step(Model m) {
+        switch (pc) {
+            case GEN:
+                //Wait for arrival
+                pc = ARR;
+                hold(m.genTime(u) - now());
+                break;
+            case ARR:
+                //Dispatch a cab and ride it
+                pc = EXIT;
+                hold(m.assignTime(now(),u) - now());
+                //Generate next user
+                spawn(new PassengerProcess(m.pool.user(now(),u.src)));
+                break;
+            case EXIT:
+                m.exit(now(),u);
+                break;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Creates users and events, recycling them when pooling is enabled.
+ * Users are recycled once they exit, events once they are processed.
+ * Recycled objects are fully reset before reuse.
+ */
+
+public class Pool {
+
+    private boolean enabled;
+    private SimContext ctx;
+    private ArrayList<User> users;
+    private ArrayList<UserGenEvent> genEvents;
+    private ArrayList<UserArrEvent> arrEvents;
+    private ArrayList<UserExitEvent> exitEvents;
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param ctx context of the simulation
+     * @param enabled true to recycle, false to always allocate
+     */
+
+    Pool(SimContext ctx, boolean enabled) {
+        this.ctx = ctx;
+        this.enabled = enabled;
+        users = new ArrayList<User>();
+        genEvents = new ArrayList<UserGenEvent>();
+        arrEvents = new ArrayList<UserArrEvent>();
+        exitEvents = new ArrayList<UserExitEvent>();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    //////// Creation Functions ////////
+
+    User user(int arrTime, int src) {
+        if (users.isEmpty()) {
+            return new User(ctx,arrTime,src);
+        }
+        User u = users.remove(users.size() - 1);
+        u.reset(ctx,arrTime,src);
+        return u;
+    }
+
+    UserGenEvent genEvent(int timestamp, User u) {
+        if (genEvents.isEmpty()) {
+            return new UserGenEvent(timestamp,u);
+        }
+        UserGenEvent e = genEvents.remove(genEvents.size() - 1);
+        e.reset(timestamp,u);
+        return e;
+    }
+
+    UserArrEvent arrEvent(int timestamp, User u) {
+        if (arrEvents.isEmpty()) {
+            return new UserArrEvent(timestamp,u);
+        }
+        UserArrEvent e = arrEvents.remove(arrEvents.size() - 1);
+        e.reset(timestamp,u);
+        return e;
+    }
+
+    UserExitEvent exitEvent(int timestamp, User u) {
+        if (exitEvents.isEmpty()) {
+            return new UserExitEvent(timestamp,u);
+        }
+        UserExitEvent e = exitEvents.remove(exitEvents.size() - 1);
+        e.reset(timestamp,u);
+        return e;
+    }
+
+    ////////    ////////
+
+    //////// Recycling Functions ////////
+
+    void recycle(User u) {
+        if (enabled) {
+            users.add(u);
+        }
+    }
+
+    void recycle(UserGenEvent e) {
+        if (enabled) {
+            e.reset(0,null);
+            genEvents.add(e);
+        }
+    }
+
+    void recycle(UserArrEvent e) {
+        if (enabled) {
+            e.reset(0,null);
+            arrEvents.add(e);
+        }
+    }
+
+    void recycle(UserExitEvent e) {
+        if (enabled) {
+            e.reset(0,null);
+            exitEvents.add(e);
+        }
+    }
+
+    ////////    ////////
+
+}
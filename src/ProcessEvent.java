@@ -0,0 +1,37 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Wake-up of a process.
+ * Each process owns one and reschedules it for every step.
+ */
+
+public class ProcessEvent extends Event {
+
+    SimProcess proc;
+
+    /**
+     * Construct a wake-up event.
+     *
+     * @param timestamp time to resume the process
+     * @param proc process to resume
+     */
+
+    ProcessEvent(int timestamp, SimProcess proc) {
+        super(timestamp,proc.u);
+        this.proc = proc;
+    }
+
+    /**
+     * Resumes the process for one step.
+     *
+     * @param m model in use
+     * @param sink receiver of the next wake-up
+     */
+
+    @Override
+    void process(Model m, EventSink sink) {
+        proc.resume(timestamp,m,sink);
+    }
+}
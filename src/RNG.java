@@ -1,31 +1,79 @@
 package sim;
 
+import java.io.*;
 import java.util.*;
 
 public class RNG {
 
-    static int count = 0;
     int id;
-    Random r;
+    SimRandom r;
     double a;
     double b;
     double c;
-    double[] p_1 = new double[]{0,0,0.0484,0.0161,0.0323,0.0484,0.0323,0.0484,0.1452,0.1774,0.0968,0.3548,0,0,0,0,0,0,0,0,0};
-    double[] p_2 = new double[]{0.1061,0,0,0,0,0,0,0,0,0,0,0,0.1970,0.0455,0.3030,0.0455,0.1515,0.0152,0.1061,0.0152,0.0152};
-    double[] p_12 = new double[]{0.3700,0.1200,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100,0.0900,0.0800,0.0100,0.0100,0.0100,0.0400,0.1500,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100};
-    double[] p_13 = new double[]{0,0.4900,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100,0.0900,0.0800,0.0100,0.0100,0.0100,0.0400,0.1500,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100};
+    final static double[] p_1 = new double[]{0,0,0.0484,0.0161,0.0323,0.0484,0.0323,0.0484,0.1452,0.1774,0.0968,0.3548,0,0,0,0,0,0,0,0,0};
+    final static double[] p_2 = new double[]{0.1061,0,0,0,0,0,0,0,0,0,0,0,0.1970,0.0455,0.3030,0.0455,0.1515,0.0152,0.1061,0.0152,0.0152};
+    final static double[] p_12 = new double[]{0.3700,0.1200,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100,0.0900,0.0800,0.0100,0.0100,0.0100,0.0400,0.1500,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100};
+    final static double[] p_13 = new double[]{0,0.4900,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100,0.0900,0.0800,0.0100,0.0100,0.0100,0.0400,0.1500,0.0100,0.0100,0.0100,0.0100,0.0100,0.0100};
         
-    RNG() {
-        id = count;
-        count++;
-        r = new Random();
-        // r = new Random(id);
+    /**
+     * Constructs a random number generator, seeded if the simulation is seeded.
+     *
+     * @param ctx context of the simulation
+     */
+
+    RNG(SimContext ctx) {
+        id = ctx.nextRNGId();
+        if (ctx.isSeeded()) {
+            r = new SimRandom(ctx.seedFor(id));
+        } else {
+            r = new SimRandom();
+        }
         // Parameters determined from performing MLE on empirical data
         a = -0.00000184178586;
         b = a + 7.6560728289;
         c = 0.0000001687984;
     }
     
+    /**
+     * Restores a generator from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    RNG(Checkpoint.In in) throws IOException {
+        this.id = in.getInt();
+        this.r = new SimRandom();
+        r.setState(in.getLong());
+        a = -0.00000184178586;
+        b = a + 7.6560728289;
+        c = 0.0000001687984;
+    }
+
+    /**
+     * Saves the generator to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(id);
+        out.putLong(r.getState());
+    }
+
+    /**
+     * Resets a recycled generator as a new generator.
+     * Reseeded if the simulation is seeded, otherwise keeps its stream.
+     *
+     * @param ctx context of the simulation
+     */
+
+    void reset(SimContext ctx) {
+        id = ctx.nextRNGId();
+        if (ctx.isSeeded()) {
+            r.setSeed(ctx.seedFor(id));
+        }
+    }
+
     /**
      * Generates a random variate pulled from a triangular distribution.
      *
@@ -42,6 +90,28 @@ public class RNG {
         }
     }
 
+    /**
+     * Checks if users arriving on a floor can head to another floor.
+     *
+     * @param src source floor
+     * @param dest destination floor
+     * @return true if the destination has a chance of being drawn, false if otherwise
+     */
+
+    static boolean generates(int src, int dest) {
+        double[] probs;
+        if (src > 2 && src < 13) {
+            probs = p_12;
+        } else if (src >= 13) {
+            probs = p_13;
+        } else if (src == 2) {
+            probs = p_2;
+        } else {
+            probs = p_1;
+        }
+        return src != dest && dest <= probs.length && probs[dest - 1] > 0;
+    }
+
     int nextDest(int src) {
         double roll = r.nextDouble();
         int i = 0;
@@ -0,0 +1,116 @@
+package sim;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs independent replications of the simulation concurrently in one JVM.
+ * Each replication has its own Engine, Model and Stats.
+ * If the parameters are seeded, replication i is seeded with seed + i.
+ */
+
+public class Replications {
+
+    private Params p;
+    private int algo;
+    private int endTime;
+
+    /**
+     * Constructs a replication runner.
+     *
+     * @param p model parameters, shared read only by all replications
+     * @param algo algorithm to run
+     * @param endTime time to run each replication until
+     */
+
+    public Replications(Params p, int algo, int endTime) {
+        this.p = p;
+        this.algo = algo;
+        this.endTime = endTime;
+    }
+
+    /**
+     * Runs replications on a pool of threads.
+     *
+     * @param n number of replications
+     * @param numThreads number of threads to run replications on
+     * @return statistics of each replication, in replication order
+     */
+
+    public List<Stats> run(int n, int numThreads) {
+        ExecutorService threads = Executors.newFixedThreadPool(Math.max(1,numThreads));
+        try {
+            ArrayList<Future<Stats>> running = new ArrayList<Future<Stats>>(n);
+            for (int i = 0; i < n; i++) {
+                final int rep = i;
+                running.add(threads.submit(new Callable<Stats>() {
+                    @Override
+                    public Stats call() {
+                        return runOne(rep);
+                    }
+                }));
+            }
+            ArrayList<Stats> results = new ArrayList<Stats>(n);
+            for (Future<Stats> f : running) {
+                results.add(f.get());
+            }
+            return results;
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    /**
+     * Continues independent engines, such as forked branches, on a pool of threads.
+     *
+     * @param engines engines to continue
+     * @param endTime time to run each engine until
+     * @param numThreads number of threads to run engines on
+     */
+
+    public static void resumeAll(List<Engine> engines, int endTime, int numThreads) {
+        ExecutorService threads = Executors.newFixedThreadPool(Math.max(1,numThreads));
+        try {
+            ArrayList<Future<?>> running = new ArrayList<Future<?>>(engines.size());
+            for (final Engine e : engines) {
+                running.add(threads.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        e.resume(endTime);
+                    }
+                }));
+            }
+            for (Future<?> f : running) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    /**
+     * Runs a single silent replication.
+     *
+     * @param rep replication number
+     * @return statistics of the replication
+     */
+
+    Stats runOne(int rep) {
+        Params repParams = p;
+        if (p.seeded) {
+            repParams = new Params(p.numFloors,p.numShafts,p.numStacked,p.bounds,p.seed + rep);
+            repParams.setLoad(p.load);
+            repParams.setGrouping(p.groupWindow,p.groupSpread);
+            repParams.setCapacity(p.capacity);
+        }
+        Stats s = new Stats();
+        Engine e = new Engine(repParams,s,algo,false);
+        e.run(endTime);
+        return s;
+    }
+
+}
@@ -0,0 +1,28 @@
+package sim;
+
+/**
+ * Event sink that can also cancel and move scheduled events.
+ * Events processed by Engine receive one, so handlers can revise what they scheduled.
+ */
+
+public interface ReschedulingSink extends EventSink {
+
+    /**
+     * Cancels a scheduled event.
+     *
+     * @param e event to be cancelled, must not have been processed yet
+     */
+
+    void cancel(Event e);
+
+    /**
+     * Moves a scheduled event to a new time.
+     *
+     * @param e event to be moved, must not have been processed yet
+     * @param timestamp new time of event, not before the current time
+     * @return replacement event, the handle for further rescheduling
+     */
+
+    Event reschedule(Event e, int timestamp);
+
+}
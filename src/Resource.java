@@ -0,0 +1,61 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Resource with a fixed number of units, awaited by processes.
+ * Waiting processes acquire released units in first come first served order,
+ * so runs stay deterministic.
+ */
+
+public class Resource {
+
+    private int available;
+    private ArrayDeque<SimProcess> waiting;
+
+    /**
+     * Constructs a resource with all units free.
+     *
+     * @param capacity number of units
+     */
+
+    public Resource(int capacity) {
+        this.available = capacity;
+        this.waiting = new ArrayDeque<SimProcess>();
+    }
+
+    /**
+     * Takes a free unit or queues the process.
+     *
+     * @param proc process acquiring a unit
+     * @return true if a unit was taken, false if the process is queued
+     */
+
+    boolean acquire(SimProcess proc) {
+        if (available > 0) {
+            available--;
+            return true;
+        }
+        waiting.add(proc);
+        return false;
+    }
+
+    /**
+     * Hands a unit to the longest waiting process, or frees it.
+     *
+     * @return process given the unit, null if none was waiting
+     */
+
+    SimProcess release() {
+        SimProcess next = waiting.poll();
+        if (next == null) {
+            available++;
+        }
+        return next;
+    }
+
+    int numWaiting() {
+        return waiting.size();
+    }
+
+}
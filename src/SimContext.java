@@ -0,0 +1,99 @@
+package sim;
+
+import java.io.*;
+
+/**
+ * Holds id allocation and random seeding of a single simulation.
+ * Each Model owns its own context, so simulations in one JVM share no mutable state.
+ */
+
+public class SimContext {
+
+    private int numUsers;
+    private int numRNGs;
+    private int numGens;
+    private boolean seeded;
+    private long seed;
+
+    /**
+     * Constructs the context of a simulation.
+     *
+     * @param p model parameters, seeded if a seed was given
+     */
+
+    SimContext(Params p) {
+        this.seeded = p.seeded;
+        this.seed = p.seed;
+    }
+
+    int nextUserId() {
+        return numUsers++;
+    }
+
+    int nextRNGId() {
+        return numRNGs++;
+    }
+
+    int nextGenId() {
+        return numGens++;
+    }
+
+    boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Seeds generators created from now on.
+     *
+     * @param seed new simulation seed
+     */
+
+    void setSeed(long seed) {
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * Saves the context to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(numUsers);
+        out.putInt(numRNGs);
+        out.putInt(numGens);
+        out.putBoolean(seeded);
+        out.putLong(seed);
+    }
+
+    /**
+     * Restores the context from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    void load(Checkpoint.In in) throws IOException {
+        numUsers = in.getInt();
+        numRNGs = in.getInt();
+        numGens = in.getInt();
+        seeded = in.getBoolean();
+        seed = in.getLong();
+    }
+
+    /**
+     * Seed of a random number generator, unique to the simulation seed and generator id.
+     *
+     * @param id id of random number generator
+     * @return seed for the generator
+     */
+
+    long seedFor(int id) {
+        // SplitMix64 finalizer, so neighbouring ids get unrelated seeds
+        long z = seed + (id + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,139 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Lightweight process for process-interaction modeling.
+ * A process is a state machine resumed by the engine at simulation times it asked for.
+ * Each step ends by calling hold or await, or by returning without either to finish.
+ * Only one wake-up event is allocated per process and it is reused for every step,
+ * so a process costs a few small objects no matter how long it lives.
+ */
+
+public abstract class SimProcess {
+
+    User u;                 //Orders wake-ups at equal times, like the user of an event
+    int pc;                 //Program counter, the next step to run
+    private ProcessEvent wake;
+    private int now;
+    private EventSink sink;
+    private boolean waiting;
+
+    /**
+     * Constructs a process at its first step.
+     *
+     * @param u user whose id orders the wake-ups of the process
+     */
+
+    SimProcess(User u) {
+        this.u = u;
+        this.wake = new ProcessEvent(0,this);
+    }
+
+    /**
+     * Runs the current step of the process.
+     *
+     * @param m model in use
+     */
+
+    abstract void step(Model m);
+
+    //////// Scheduling Functions ////////
+
+    /**
+     * Resumes the process at its wake-up time.
+     *
+     * @param timestamp current simulation time
+     * @param m model in use
+     * @param sink receiver of the next wake-up
+     */
+
+    void resume(int timestamp, Model m, EventSink sink) {
+        this.now = timestamp;
+        this.sink = sink;
+        this.waiting = false;
+        step(m);
+        this.sink = null;
+    }
+
+    /**
+     * Schedules the first step of the process.
+     *
+     * @param timestamp time to start at
+     * @param sink receiver of the wake-up
+     */
+
+    void start(int timestamp, EventSink sink) {
+        wake.reset(timestamp,u);
+        sink.add(wake);
+    }
+
+    /**
+     * Current simulation time of the running step.
+     *
+     * @return simulation time
+     */
+
+    int now() {
+        return now;
+    }
+
+    /**
+     * Suspends the process for a duration of simulation time.
+     *
+     * @param t time to hold for, at least 0
+     */
+
+    void hold(int t) {
+        if (t < 0 || waiting) {
+            throw new IllegalStateException("Process must hold for a non-negative time, once per step");
+        }
+        waiting = true;
+        wake.reset(now + t,u);
+        sink.add(wake);
+    }
+
+    /**
+     * Suspends the process until it acquires a unit of a resource.
+     * Continues at the current time if a unit is free.
+     *
+     * @param r resource to acquire
+     */
+
+    void await(Resource r) {
+        if (waiting) {
+            throw new IllegalStateException("Process already suspended in this step");
+        }
+        waiting = true;
+        if (r.acquire(this)) {
+            wake.reset(now,u);
+            sink.add(wake);
+        }
+    }
+
+    /**
+     * Starts another process at the current time.
+     *
+     * @param proc process to start
+     */
+
+    void spawn(SimProcess proc) {
+        proc.start(now,sink);
+    }
+
+    /**
+     * Releases a unit of a resource, waking the longest waiting process.
+     *
+     * @param r resource to release
+     */
+
+    void release(Resource r) {
+        SimProcess next = r.release();
+        if (next != null) {
+            next.start(now,sink);
+        }
+    }
+
+    ////////    ////////
+
+}
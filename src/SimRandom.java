@@ -0,0 +1,48 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Random number generator with readable state, for checkpoints.
+ * Uses the same linear congruential generator as java.util.Random,
+ * so it produces the same sequence for the same seed.
+ */
+
+public class SimRandom extends Random {
+
+    private final static long serialVersionUID = 1L;
+    private final static long MULTIPLIER = 0x5DEECE66DL;
+    private final static long ADDEND = 0xBL;
+    private final static long MASK = (1L << 48) - 1;
+
+    private long state;     //Set by setSeed during construction
+
+    SimRandom() {
+        super();
+    }
+
+    SimRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+        super.setSeed(seed);
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int)(state >>> (48 - bits));
+    }
+
+    long getState() {
+        return state;
+    }
+
+    void setState(long state) {
+        this.state = state & MASK;
+    }
+
+}
@@ -1,5 +1,7 @@
 package sim;
 
+import java.io.*;
+
 /**
  * Main statistical aggregator.
  */
@@ -8,8 +10,14 @@ public class Stats {
 
     public int numIn;
     public int numOut;
-    public int totTimeWait;
-    public int totTime;
+    public long totTimeWait;     //Long so runs of weeks do not overflow
+    public long totTime;
+    public int numGroups;       //Cab runs started by destination dispatch
+    public int numJoined;       //Users who joined a run already started
+    public long totJoinWait;
+    public long totGroupTime;   //Time cab runs spend between leaving the first floor and the last destination
+    public int numShared;       //Users who boarded a cab sweep already under way
+    public int numTransfers;    //Users who changed cabs at a transfer floor
 
     /**
      * Constructs the required stats.
@@ -20,6 +28,50 @@ public class Stats {
         numOut = 0;
         totTimeWait = 0;
         totTime = 0;
+        numGroups = 0;
+        numJoined = 0;
+        totJoinWait = 0;
+        totGroupTime = 0;
+        numShared = 0;
+        numTransfers = 0;
+    }
+
+    /**
+     * Saves the statistics to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(numIn);
+        out.putInt(numOut);
+        out.putLong(totTimeWait);
+        out.putLong(totTime);
+        out.putInt(numGroups);
+        out.putInt(numJoined);
+        out.putLong(totJoinWait);
+        out.putLong(totGroupTime);
+        out.putInt(numShared);
+        out.putInt(numTransfers);
+    }
+
+    /**
+     * Restores the statistics from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    void load(Checkpoint.In in) throws IOException {
+        numIn = in.getInt();
+        numOut = in.getInt();
+        totTimeWait = in.getLong();
+        totTime = in.getLong();
+        numGroups = in.getInt();
+        numJoined = in.getInt();
+        totJoinWait = in.getLong();
+        totGroupTime = in.getLong();
+        numShared = in.getInt();
+        numTransfers = in.getInt();
     }
 
     /**
@@ -35,6 +87,28 @@ public class Stats {
         if (numOut != 0) {
             System.out.println("Average Time Spent Waiting and Travelling: " + (totTime / numOut));
         }
+        if (numGroups != 0) {
+            printGroups();
+        }
+        if (numShared != 0) {
+            System.out.println("Number of Users Boarding a Cab Sweep Under Way: " + numShared);
+        }
+        if (numTransfers != 0) {
+            System.out.println("Number of Users Changing Cabs at a Transfer Floor: " + numTransfers);
+        }
+    }
+
+    /**
+     * Prints the destination dispatch statistics, per cab run.
+     */
+
+    public void printGroups() {
+        System.out.println("Number of Cab Runs: " + numGroups);
+        System.out.println("Average Users per Cab Run: " + String.format("%.2f",(double)(numGroups + numJoined) / numGroups));
+        System.out.println("Average Cab Run Time: " + (totGroupTime / numGroups));
+        if (numJoined != 0) {
+            System.out.println("Average Time Spent Waiting for Cab After Joining a Run: " + (totJoinWait / numJoined));
+        }
     }
 
     /**
@@ -0,0 +1,18 @@
+package sim;
+
+/**
+ * Receives window statistics as a streaming simulation runs.
+ */
+
+public interface StatsSink {
+
+    /**
+     * Called once per window, in time order.
+     *
+     * @param w statistics of the window, not reused by the caller
+     * @return true to keep running, false to stop the simulation
+     */
+
+    boolean accept(StatsWindow w);
+
+}
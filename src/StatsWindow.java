@@ -0,0 +1,59 @@
+package sim;
+
+/**
+ * Statistics of one window of simulation time.
+ * Arrivals are counted when they are assigned a cab, exits when they leave.
+ */
+
+public class StatsWindow {
+
+    public int start;
+    public int end;
+    public int numIn;
+    public int numOut;
+    public long totTimeWait;
+    public long totTime;
+
+    /**
+     * Constructs the statistics of a window.
+     *
+     * @param start first second of the window
+     * @param end second after the window
+     */
+
+    StatsWindow(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Average time arrivals in the window wait for a cab.
+     *
+     * @return average wait, 0 if none arrived
+     */
+
+    public long avgWait() {
+        return numIn == 0 ? 0 : totTimeWait / numIn;
+    }
+
+    /**
+     * Average time spent waiting and travelling by exits in the window.
+     *
+     * @return average time in system, 0 if none exited
+     */
+
+    public long avgTime() {
+        return numOut == 0 ? 0 : totTime / numOut;
+    }
+
+    /**
+     * Formats the window as a CSV row of start, end, arrivals, exits, average wait and average time.
+     *
+     * @return CSV row
+     */
+
+    public String toCsv() {
+        return start + "," + end + "," + numIn + "," + numOut + "," + avgWait() + "," + avgTime();
+    }
+
+}
@@ -0,0 +1,119 @@
+package sim;
+
+/**
+ * Splits the cumulative statistics into fixed windows of simulation time.
+ * Snapshots the totals after every timestamp, so each window holds exactly the events inside it.
+ * Windows without events are still emitted, so consumers get a regular series.
+ * Keeps a constant amount of state however long the simulation runs.
+ */
+
+public class StreamingStats implements TickListener {
+
+    private Stats s;
+    private int window;
+    private StatsSink sink;
+    private TickListener next;
+    private boolean stopped;
+
+    // Totals at the start of the window
+    private int windowStart;
+    private int startIn;
+    private int startOut;
+    private long startWait;
+    private long startTime;
+
+    // Totals after the last timestamp before the current one
+    private int lastIn;
+    private int lastOut;
+    private long lastWait;
+    private long lastTime;
+
+    /**
+     * Constructs windows starting at the current totals.
+     *
+     * @param s statistics aggregator of the simulation
+     * @param start first second of the first window
+     * @param window length of each window in seconds
+     * @param sink receiver of windows
+     * @param next listener to forward ticks to, null for none
+     */
+
+    StreamingStats(Stats s, int start, int window, StatsSink sink, TickListener next) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.s = s;
+        this.window = window;
+        this.sink = sink;
+        this.next = next;
+        this.windowStart = start;
+        snapshot();
+        mark();
+    }
+
+    @Override
+    public void tick(int time, int numEvents) {
+        //Events of this tick belong to its window, totals before it close earlier windows
+        while (!stopped && time >= windowStart + window) {
+            emit(windowStart + window);
+        }
+        snapshot();
+        if (next != null) {
+            next.tick(time,numEvents);
+        }
+    }
+
+    /**
+     * Emits the last, possibly partial, window.
+     *
+     * @param time time of the last processed event
+     */
+
+    void flush(int time) {
+        if (!stopped && time >= windowStart) {
+            emit(Math.min(time + 1,windowStart + window));
+        }
+    }
+
+    /**
+     * Checks if the sink asked to stop.
+     *
+     * @return true if stopped
+     */
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Sends the window ending at a time and starts the next one.
+     *
+     * @param end second after the window
+     */
+
+    private void emit(int end) {
+        StatsWindow w = new StatsWindow(windowStart,end);
+        w.numIn = lastIn - startIn;
+        w.numOut = lastOut - startOut;
+        w.totTimeWait = lastWait - startWait;
+        w.totTime = lastTime - startTime;
+        windowStart = end;
+        mark();
+        stopped = !sink.accept(w);
+    }
+
+    private void snapshot() {
+        lastIn = s.numIn;
+        lastOut = s.numOut;
+        lastWait = s.totTimeWait;
+        lastTime = s.totTime;
+    }
+
+    private void mark() {
+        startIn = lastIn;
+        startOut = lastOut;
+        startWait = lastWait;
+        startTime = lastTime;
+    }
+
+}
@@ -0,0 +1,18 @@
+package sim;
+
+/**
+ * Notified by the engine after all events of a timestamp are processed.
+ */
+
+public interface TickListener {
+
+    /**
+     * Called once per processed timestamp.
+     *
+     * @param time simulation time of the tick
+     * @param numEvents number of events processed at this time
+     */
+
+    void tick(int time, int numEvents);
+
+}
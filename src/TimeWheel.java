@@ -0,0 +1,239 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Time-stepped future event list.
+ * Holds one bucket per second over a window starting at the current second,
+ * and advances one second at a time, so scheduling and popping cost O(1) when most seconds have events.
+ * Each bucket holds the events of a single second, sorted by user id.
+ * The window doubles to cover far events, events beyond the largest window wait in an overflow heap.
+ * Events before the current second step the wheel back, so like the heap it accepts any order of adds,
+ * as when the engine polls every event and adds them back.
+ */
+
+public class TimeWheel implements EventList {
+
+    final static int MIN_BUCKETS = 64;
+    final static int MAX_BUCKETS = 1 << 20;    //About 12 days of seconds
+
+    private Event[][] buckets;
+    private int[] counts;
+    private int mask;
+    private int now;        //Second of the current bucket
+    private int pos;        //Next event to pop in the current bucket
+    private int size;       //Events in buckets, excluding overflow
+    private PriorityQueue<Event> overflow;
+
+    /**
+     * Constructs an empty wheel.
+     */
+
+    public TimeWheel() {
+        buckets = new Event[MIN_BUCKETS][];
+        counts = new int[MIN_BUCKETS];
+        mask = MIN_BUCKETS - 1;
+        overflow = new PriorityQueue<Event>();
+    }
+
+    //////// Event List Functions ////////
+
+    @Override
+    public void add(Event e) {
+        if (size == 0 && overflow.isEmpty()) {
+            clear(now);
+            now = e.timestamp;
+        } else if (e.timestamp < now) {
+            rewind(e.timestamp);
+        }
+        if (e.timestamp - now >= buckets.length) {
+            grow(e.timestamp - now);
+            if (e.timestamp - now >= buckets.length) {
+                overflow.add(e);
+                return;
+            }
+        }
+        insert(e);
+    }
+
+    @Override
+    public Event poll() {
+        if (!advance()) {
+            return null;
+        }
+        int b = now & mask;
+        Event e = buckets[b][pos];
+        buckets[b][pos++] = null;
+        size--;
+        return e;
+    }
+
+    @Override
+    public Event peek() {
+        if (!advance()) {
+            return null;
+        }
+        return buckets[now & mask][pos];
+    }
+
+    @Override
+    public int size() {
+        return size + overflow.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0 && overflow.isEmpty();
+    }
+
+    ////////    ////////
+
+    //////// Utility Functions ////////
+
+    /**
+     * Steps the current second forward to the earliest event.
+     * Jumps straight to the overflow when the buckets are empty.
+     *
+     * @return true if an event was found, false if empty
+     */
+
+    private boolean advance() {
+        if (size == 0) {
+            if (overflow.isEmpty()) {
+                return false;
+            }
+            clear(now);
+            now = overflow.peek().timestamp;
+            refill();
+        }
+        while (pos == counts[now & mask]) {
+            clear(now);
+            now++;
+            refill();
+        }
+        return true;
+    }
+
+    /**
+     * Steps the current second back for an earlier event.
+     * Buckets leaving the end of the window move to the overflow.
+     *
+     * @param second earlier second
+     */
+
+    private void rewind(int second) {
+        //Drop the popped slots of the current bucket, it is no longer first
+        int b0 = now & mask;
+        if (pos > 0) {
+            int n = counts[b0] - pos;
+            System.arraycopy(buckets[b0],pos,buckets[b0],0,n);
+            Arrays.fill(buckets[b0],n,counts[b0],null);
+            counts[b0] = n;
+            pos = 0;
+        }
+        int end = now + buckets.length;
+        for (int s = Math.max(now,end - (now - second)); s < end; s++) {
+            int b = s & mask;
+            for (int i = 0; i < counts[b]; i++) {
+                overflow.add(buckets[b][i]);
+                buckets[b][i] = null;
+            }
+            size -= counts[b];
+            counts[b] = 0;
+        }
+        now = second;
+    }
+
+    /**
+     * Moves overflow events that entered the window into their buckets.
+     */
+
+    private void refill() {
+        while (!overflow.isEmpty() && overflow.peek().timestamp - now < buckets.length) {
+            insert(overflow.poll());
+        }
+    }
+
+    /**
+     * Empties the bucket of a second once all its events are popped.
+     *
+     * @param second second of the bucket
+     */
+
+    private void clear(int second) {
+        int b = second & mask;
+        if (counts[b] != 0) {
+            Arrays.fill(buckets[b],pos,counts[b],null);
+        }
+        counts[b] = 0;
+        pos = 0;
+    }
+
+    /**
+     * Inserts an event into the bucket of its second, keeping user id order.
+     *
+     * @param e event within the window
+     */
+
+    private void insert(Event e) {
+        int b = e.timestamp & mask;
+        Event[] bucket = buckets[b];
+        int n = counts[b];
+        if (bucket == null) {
+            bucket = new Event[4];
+            buckets[b] = bucket;
+        } else if (n == bucket.length) {
+            bucket = Arrays.copyOf(bucket,n * 2);
+            buckets[b] = bucket;
+        }
+        //Usually the latest user, so insert from the back
+        int i = n;
+        int first = e.timestamp == now ? pos : 0;
+        while (i > first && bucket[i - 1].compareTo(e) > 0) {
+            bucket[i] = bucket[i - 1];
+            i--;
+        }
+        bucket[i] = e;
+        counts[b] = n + 1;
+        size++;
+    }
+
+    /**
+     * Doubles the window until it covers an offset from the current second, up to the maximum.
+     *
+     * @param offset seconds after the current second
+     */
+
+    private void grow(int offset) {
+        int length = buckets.length;
+        while (offset >= length && length < MAX_BUCKETS) {
+            length *= 2;
+        }
+        if (length == buckets.length) {
+            return;
+        }
+        Event[][] old = buckets;
+        int[] oldCounts = counts;
+        buckets = new Event[length][];
+        counts = new int[length];
+        mask = length - 1;
+        //Each old bucket holds a single second, so whole buckets move
+        for (int b = 0; b < old.length; b++) {
+            if (oldCounts[b] == 0) {
+                continue;
+            }
+            int start = b == (now & (old.length - 1)) ? pos : 0;
+            if (start == oldCounts[b]) {
+                continue;
+            }
+            int nb = old[b][start].timestamp & mask;
+            buckets[nb] = Arrays.copyOfRange(old[b],start,Math.max(oldCounts[b],start + 4));
+            counts[nb] = oldCounts[b] - start;
+        }
+        pos = 0;
+        refill();
+    }
+
+    ////////    ////////
+
+}
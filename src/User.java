@@ -1,5 +1,6 @@
 package sim;
 
+import java.io.*;
 import java.util.*;
 
 /**
@@ -8,8 +9,6 @@ import java.util.*;
 
 public class User {
 
-    static int maxFloor = 0;
-    static int count = 0;   //Class variable to track user IDs
     RNG rng;
     int id;
     int arrTime;    //Arrival time
@@ -20,16 +19,73 @@ public class User {
     /**
      * Constructs a user with its parameters.
      *
+     * @param ctx context of the simulation
      * @param arrTime time user arrived
      * @param src floor user arrive on
      */
 
-    User(int arrTime, int src) {
-        rng = new RNG();
-        this.id = count;
-        count++;
+    User(SimContext ctx, int arrTime, int src) {
+        rng = new RNG(ctx);
+        init(ctx,arrTime,src);
+    }
+
+    /**
+     * Restores a user from a checkpoint.
+     *
+     * @param in checkpoint to read from
+     */
+
+    User(Checkpoint.In in) throws IOException {
+        this.id = in.getInt();
+        this.arrTime = in.getInt();
+        this.src = in.getInt();
+        this.dest = in.getInt();
+        this.cab = in.getInt();
+        this.rng = new RNG(in);
+    }
+
+    /**
+     * Saves the user to a checkpoint.
+     *
+     * @param out checkpoint to write to
+     */
+
+    void save(Checkpoint.Out out) throws IOException {
+        out.putInt(id);
+        out.putInt(arrTime);
+        out.putInt(src);
+        out.putInt(dest);
+        out.putInt(cab);
+        rng.save(out);
+    }
+
+    /**
+     * Resets a recycled user as a new user.
+     * Its random number generator is reset as a new generator.
+     *
+     * @param ctx context of the simulation
+     * @param arrTime time user arrived
+     * @param src floor user arrive on
+     */
+
+    void reset(SimContext ctx, int arrTime, int src) {
+        rng.reset(ctx);
+        init(ctx,arrTime,src);
+    }
+
+    /**
+     * Sets the user's parameters and random destination.
+     *
+     * @param ctx context of the simulation
+     * @param arrTime time user arrived
+     * @param src floor user arrive on
+     */
+
+    private void init(SimContext ctx, int arrTime, int src) {
+        this.id = ctx.nextUserId();
         this.arrTime = arrTime;
         this.src = src;
+        this.cab = 0;
         //Set random destination for user
         this.dest = this.src;
         while (this.src == this.dest) {
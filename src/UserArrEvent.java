@@ -24,18 +24,17 @@ public class UserArrEvent extends Event {
      * Also triggers next user generation event.
      * 
      * @param m model in use
-     * @return list of triggered events.
+     * @param sink receiver of triggered events
      */
 
     @Override
-    ArrayList<Event> process(Model m) {
-        ArrayList<Event> triggeredEvents = new ArrayList<Event>(2);
+    void process(Model m, EventSink sink) {
         //Trigger exit event
-        triggeredEvents.add(m.assign(timestamp,u));;
+        sink.add(m.assign(timestamp,u));
         //Generate next user
-        User x = new User(timestamp,u.src);
-        triggeredEvents.add(new UserGenEvent(timestamp,x));
-        return triggeredEvents;
+        User x = m.pool.user(timestamp,u.src);
+        sink.add(m.pool.genEvent(timestamp,x));
+        m.pool.recycle(this);
     }
 }
 
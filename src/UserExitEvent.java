@@ -23,13 +23,13 @@ public class UserExitEvent extends Event {
      * Exits the system.
      * 
      * @param m model in use
-     * @return null
+     * @param sink unused, exit triggers no events
      */
 
     @Override
-    ArrayList<Event> process(Model m) {
+    void process(Model m, EventSink sink) {
         m.exit(timestamp,u);
-        return null;
+        m.pool.recycle(this);
     }
 }
 
@@ -23,14 +23,13 @@ public class UserGenEvent extends Event {
      * Triggers a user arriving event
      * 
      * @param m model in use
-     * @return user arriving event
+     * @param sink receiver of user arriving event
      */
 
     @Override
-    ArrayList<Event> process(Model m) {
-        ArrayList<Event> triggeredEvents = new ArrayList<Event>();
-        triggeredEvents.add(m.gen(u));
-        return triggeredEvents;
+    void process(Model m, EventSink sink) {
+        sink.add(m.gen(u));
+        m.pool.recycle(this);
     }
 }
 
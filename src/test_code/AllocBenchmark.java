@@ -0,0 +1,59 @@
+package sim;
+
+import java.lang.management.*;
+
+/**
+ * Measures bytes allocated per simulated event in Engine.run.
+ * Uses the HotSpot per-thread allocation counter.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/AllocBenchmark.java -d ../bench
+ *     java -cp ../bench sim.AllocBenchmark [ALGO] [POOLED]
+ */
+
+public class AllocBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int NUM_SHAFTS = 6;
+    final static int NUM_STACKED = 2;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static int RUNTIME = 3600 * 24 * 30;
+
+    /**
+     * Event list that counts polled events.
+     */
+
+    static class CountingEventList extends HeapEventList {
+        long count = 0;
+
+        CountingEventList(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        public Event poll() {
+            count++;
+            return super.poll();
+        }
+    }
+
+    public static void main(String[] args) {
+        int algo = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        boolean pooled = args.length > 1 && Integer.parseInt(args[1]) != 0;
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        Params p = new Params(NUM_FLOORS,NUM_SHAFTS,NUM_STACKED,BOUNDS);
+        CountingEventList fel = new CountingEventList(NUM_FLOORS);
+        Engine e = new Engine(p,new Stats(),algo,false,fel);
+        e.setPooled(pooled);
+        long bytes = bean.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        e.run(RUNTIME);
+        long time = System.nanoTime() - start;
+        bytes = bean.getThreadAllocatedBytes(tid) - bytes;
+        System.out.println("algo,pooled,events,bytes_per_event,ns_per_event");
+        System.out.println(algo + "," + pooled + "," + fel.count + "," + (bytes / fel.count) + "," + (time / fel.count));
+    }
+
+}
@@ -0,0 +1,70 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Times Model.assignTime on buildings of 12, 100 and 1000 cabs.
+ * Every cab serves every floor, so each assignment scans all cabs of the building.
+ * Users are drawn up front and time advances by a few seconds per assignment,
+ * so cabs keep a mix of busy and available states.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/AssignBenchmark.java -d ../bench
+ *     java -cp ../bench sim.AssignBenchmark [ALGO]
+ */
+
+public class AssignBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,20,2,21};
+    final static int[] NUM_CABS = new int[]{12,100,1000};
+    final static int ASSIGNS = 2000000;
+    final static int NUM_USERS = 4096;
+    final static int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int algo = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        System.out.println("cabs,algo,ns_per_assign,assigns_per_sec,checksum");
+        for (int numCabs : NUM_CABS) {
+            long best = Long.MAX_VALUE;
+            long sum = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+                Params p = new Params(NUM_FLOORS,numCabs / 2,2,BOUNDS,numCabs);
+                Model m = new Model(p,new Stats(),algo,false);
+                User[] users = users(p);
+                int assigns = Math.max(ASSIGNS / numCabs * 12,20000);
+                long start = System.nanoTime();
+                sum = 0;
+                int time = 0;
+                for (int i = 0; i < assigns; i++) {
+                    time += 1 + (i & 3);
+                    sum += m.assignTime(time,users[i & (NUM_USERS - 1)]);
+                }
+                best = Math.min(best,(System.nanoTime() - start) / assigns);
+            }
+            System.out.println(numCabs + "," + algo + "," + best + "," + (1000000000L / Math.max(best,1)) + "," + sum);
+        }
+    }
+
+    /**
+     * Draws users with distinct source and destination floors.
+     *
+     * @param p model parameters
+     * @return users to assign
+     */
+
+    static User[] users(Params p) {
+        Random r = new Random(p.seed);
+        SimContext ctx = new SimContext(p);
+        User[] users = new User[NUM_USERS];
+        for (int i = 0; i < NUM_USERS; i++) {
+            users[i] = new User(ctx,0,1 + r.nextInt(NUM_FLOORS));
+            do {
+                users[i].dest = 1 + r.nextInt(NUM_FLOORS);
+            } while (users[i].dest == users[i].src);
+        }
+        return users;
+    }
+
+}
@@ -0,0 +1,218 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Checks that Model.select picks the same cab as the stream pipelines it replaced.
+ * Feeds randomized cab states, users, times and bounds to both, and compares
+ * the selected cab and the times to the user left on every cab.
+ * Runs with no cab eligible must throw in both.
+ * The old pipelines run on frozen copies of the baseline cost functions,
+ * so later changes to the model's cost functions can't hide a difference.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/AssignEquivalence.java -d ../bench
+ *     java -cp ../bench sim.AssignEquivalence [TRIALS]
+ */
+
+public class AssignEquivalence {
+
+    final static int NUM_FLOORS = 21;
+    final static int[][] BOUNDS = new int[][]{{1,12,2,21},{1,20,2,21},{1,11,11,21},{1,8,8,21}};
+
+    public static void main(String[] args) {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        Random r = new Random(1);
+        long mismatches = 0;
+        long noCab = 0;
+        long fallbacks = 0;
+        for (int t = 0; t < trials; t++) {
+            int[] bounds = BOUNDS[t % BOUNDS.length];
+            int numShafts = 1 + r.nextInt(8);
+            Params p = new Params(NUM_FLOORS,numShafts,2,bounds,t);
+            Model m = new Model(p,new Stats(),1 + r.nextInt(2),false);
+            int numCabs = numShafts * 2;
+            int time = r.nextInt(10000);
+            CabStore cabs = m.getCabs();
+            for (int i = 0; i < numCabs; i++) {
+                cabs.dest[i] = r.nextInt(NUM_FLOORS + 2);
+                cabs.curr[i] = 1 + r.nextInt(NUM_FLOORS);
+                cabs.nextAvail[i] = r.nextInt(4) == 0 ? 0 : time + r.nextInt(200) - 100;
+                cabs.timeToUsr[i] = r.nextInt();
+                cabs.timeToUsrCollide[i] = r.nextInt();
+            }
+            User u = new User(new SimContext(p),time,1 + r.nextInt(NUM_FLOORS));
+            u.dest = 1 + r.nextInt(NUM_FLOORS);
+            int[][] before = times(m,numCabs);
+
+            //New selection
+            int picked;
+            try {
+                picked = m.select(time,u);
+            } catch (NoSuchElementException ex) {
+                picked = -1;
+            }
+            int[][] after = times(m,numCabs);
+            restore(m,before);
+            int oldPicked;
+            try {
+                oldPicked = streamSelect(cabs,bounds,m.algo,numCabs,u,time);
+            } catch (NoSuchElementException ex) {
+                oldPicked = -1;
+            }
+            if (oldPicked == -1) {
+                noCab++;
+            }
+            if (m.algo == 1 && oldPicked >= 0 && !isCollide(cabs,oldPicked,u,time)) {
+                fallbacks++;
+            }
+            if (picked != oldPicked || !Arrays.deepEquals(after,times(m,numCabs))) {
+                mismatches++;
+                if (mismatches <= 10) {
+                    System.out.println("Mismatch at trial " + t + ": algo " + m.algo + " new " + picked + " old " + oldPicked);
+                }
+            }
+        }
+        System.out.println("trials,mismatches,no_eligible_cab,algo1_fallbacks");
+        System.out.println(trials + "," + mismatches + "," + noCab + "," + fallbacks);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Selection as Model.assignTime did it before the single pass rewrite,
+     * with cabs referred to by id.
+     * Uses the frozen copies of the baseline cost functions below, not the current model's.
+     */
+
+    static int streamSelect(final CabStore store, final int[] bounds, int algo, int numCabs, final User u, final int time) {
+        ArrayList<Integer> cabs = new ArrayList<Integer>();
+        for (int i = 0; i < numCabs; i++) {
+            cabs.add(i);
+        }
+        Comparator<Integer> byTime = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Integer.compare(store.timeToUsr[o1],store.timeToUsr[o2]);
+            }
+        };
+        int assigned = cabs.get(0);
+        Optional<Integer> possible;
+        switch (algo) {
+            case 1:
+                possible = cabs.stream()
+                    .filter(cab -> checkBounds(store,bounds,cab,u))
+                    .map(cab -> findTimeToUsr(store,cab,u,time))
+                    .filter(cab -> isCollide(store,cab,u,time))
+                    .min(byTime);
+                if (possible.isPresent()) {
+                    assigned = possible.get();
+                } else {
+                    possible = cabs.stream()
+                        .filter(cab -> checkBounds(store,bounds,cab,u))
+                        .map(cab -> findTimeToUsr(store,cab,u,time))
+                        .min(byTime);
+                    assigned = possible.get();
+                }
+                break;
+            case 2:
+                possible = cabs.stream()
+                    .filter(cab -> checkBounds(store,bounds,cab,u))
+                    .map(cab -> findTimeToUsr(store,cab,u,time))
+                    .min(new Comparator<Integer>() {
+                        @Override
+                        public int compare(Integer o1, Integer o2) {
+                            return Integer.compare(store.timeToUsrCollide[o1],store.timeToUsrCollide[o2]);
+                        }
+                    });
+                assigned = possible.get();
+                break;
+        }
+        return assigned;
+    }
+
+    //////// Baseline Cost Functions ////////
+
+    // Frozen from the baseline Model, with Cab fields read from the store columns
+
+    final static int TRAVEL_TIME = 2;
+
+    static boolean checkBounds(CabStore store, int[] bounds, int cab, User u) {
+        int pos_bound = store.pos[cab] * 2;
+        if (u.src >= bounds[pos_bound] && u.src <= bounds[pos_bound + 1]) {
+            if (u.dest >= bounds[pos_bound] && u.dest <= bounds[pos_bound + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int otherCab(CabStore store, int cab) {
+        if (store.pos[cab] == 0) {
+            return store.shaft[cab] * 2 + 1;
+        }
+        return store.shaft[cab] * 2;
+    }
+
+    static boolean getAvail(CabStore store, int cab, int timestamp) {
+        return timestamp - store.nextAvail[cab] >= 0;
+    }
+
+    static boolean isCollide(CabStore store, int cab, User u, int time) {
+        int sameShaft = otherCab(store,cab);
+        if (getAvail(store,sameShaft,time)) {
+            return false;
+        }
+        if (store.pos[cab] == 0) {
+            if (u.src < store.dest[sameShaft] && u.dest < store.dest[sameShaft]) {
+                return false;
+            }
+        } else {
+            if (u.src > store.dest[sameShaft] && u.dest > store.dest[sameShaft]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int findTimeToUsr(CabStore store, int cab, User u, int time) {
+        int other = otherCab(store,cab);
+        int toUsr = TRAVEL_TIME * Math.abs(store.dest[cab] - u.src);
+        if (getAvail(store,cab,time)) {
+            if (!isCollide(store,cab,u,time)) {
+                store.timeToUsrCollide[cab] = time + toUsr;
+            } else {
+                store.timeToUsrCollide[cab] = store.nextAvail[other] + toUsr;
+            }
+            store.timeToUsr[cab] = time + toUsr;
+        } else {
+            if (!isCollide(store,cab,u,store.nextAvail[cab])) {
+                store.timeToUsrCollide[cab] = store.nextAvail[cab] + toUsr;
+            } else {
+                store.timeToUsrCollide[cab] = store.nextAvail[other] + toUsr;
+            }
+            store.timeToUsr[cab] = store.nextAvail[cab] + toUsr;
+        }
+        return cab;
+    }
+
+    ////////    ////////
+
+    static int[][] times(Model m, int numCabs) {
+        int[][] t = new int[numCabs][];
+        for (int i = 0; i < numCabs; i++) {
+            t[i] = new int[]{m.getCabs().timeToUsr[i],m.getCabs().timeToUsrCollide[i]};
+        }
+        return t;
+    }
+
+    static void restore(Model m, int[][] t) {
+        for (int i = 0; i < t.length; i++) {
+            m.getCabs().timeToUsr[i] = t[i][0];
+            m.getCabs().timeToUsrCollide[i] = t[i][1];
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package sim;
+
+/**
+ * Compares a trip per user with collective sweeps of cabs with a passenger capacity.
+ * Runs a seeded week for each building, load and capacity, and prints the user statistics,
+ * the share of users boarding a sweep under way and the engine time per arrival.
+ * The large building scales shafts and load together, so the arrivals per cab match the small one.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/CapacityBenchmark.java -d ../bench
+ *     java -cp ../bench sim.CapacityBenchmark [ALGO]
+ */
+
+public class CapacityBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static int[] SHAFTS = new int[]{6,60};
+    final static double[] LOADS = new double[]{1,2,3,4,6};
+    final static int[] CAPACITIES = new int[]{0,4,8,16};
+    final static int RUNTIME = 3600 * 24 * 7;
+
+    public static void main(String[] args) {
+        int algo = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        System.out.println("shafts,load,capacity,ns_per_arrival,arrived,exited,avg_wait,avg_time,shared");
+        for (int numShafts : SHAFTS) {
+            for (double load : LOADS) {
+                for (int capacity : CAPACITIES) {
+                    Params p = new Params(NUM_FLOORS,numShafts,2,BOUNDS,1);
+                    p.setLoad(load * numShafts / SHAFTS[0]);
+                    p.setCapacity(capacity);
+                    Stats s = new Stats();
+                    long start = System.nanoTime();
+                    new Engine(p,s,algo,false).run(RUNTIME);
+                    long ns = (System.nanoTime() - start) / s.numIn;
+                    System.out.println(numShafts + "," + load + "," + capacity + "," + ns + ","
+                        + s.numIn + "," + s.numOut + "," + (s.totTimeWait / s.numIn) + "," + (s.totTime / s.numOut) + ","
+                        + String.format("%.3f",(double)s.numShared / s.numIn));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Benchmarks the future event list implementations with the classic hold model.
+ * The list is filled to a fixed size, then each hold pops the earliest event
+ * and reschedules it a random increment later.
+ * Also checks that every implementation pops events in the same order.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/FelBenchmark.java -d ../bench
+ *     java -cp ../bench sim.FelBenchmark
+ */
+
+public class FelBenchmark {
+
+    final static int[] SIZES = new int[]{10,100,1000,10000,100000};
+    final static int HOLDS = 2000000;
+    final static int MAX_INCREMENT = 460;   //Roughly the longest inter-arrival time of the model
+    final static int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        System.out.println("size,heap_ns_per_hold,calendar_ns_per_hold,same_order");
+        for (int size : SIZES) {
+            SimContext ctx = new SimContext(new Params(1,1,1,new int[]{1,1},size));
+            User[] users = new User[size];
+            for (int i = 0; i < size; i++) {
+                users[i] = new User(ctx,0,1);
+            }
+            long heapTime = Long.MAX_VALUE;
+            long calTime = Long.MAX_VALUE;
+            long heapSum = 0;
+            long calSum = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+                long start = System.nanoTime();
+                heapSum = hold(new HeapEventList(size),users);
+                heapTime = Math.min(heapTime,System.nanoTime() - start);
+                start = System.nanoTime();
+                calSum = hold(new CalendarQueue(),users);
+                calTime = Math.min(calTime,System.nanoTime() - start);
+            }
+            System.out.println(size + "," + (heapTime / HOLDS) + "," + (calTime / HOLDS) + "," + (heapSum == calSum));
+        }
+    }
+
+    /**
+     * Runs the hold model on an event list.
+     *
+     * @param e empty event list
+     * @param users one user per scheduled event
+     * @return checksum of the order events were popped in
+     */
+
+    static long hold(EventList e, User[] users) {
+        Random r = new Random(users.length);
+        for (int i = 0; i < users.length; i++) {
+            e.add(new UserExitEvent(r.nextInt(MAX_INCREMENT),users[i]));
+        }
+        long sum = 0;
+        for (int i = 0; i < HOLDS; i++) {
+            Event curr = e.poll();
+            sum = sum * 31 + curr.timestamp * 1000003L + curr.u.id;
+            curr.timestamp += r.nextInt(MAX_INCREMENT);
+            e.add(curr);
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,53 @@
+package sim;
+
+/**
+ * Compares the per-floor slot event list against the binary heap on the full model.
+ * Reports time in the event list from the engine profile, and checks both give the same results.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/FloorSlotBenchmark.java -d ../bench
+ *     java -cp ../bench sim.FloorSlotBenchmark
+ */
+
+public class FloorSlotBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static double[] LOADS = new double[]{1,5,20};
+    final static int RUNTIME = 3600 * 24 * 7;
+    final static int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.println("load,list,ms,poll_ns_per_event,schedule_ns_per_event,peak_size,result");
+        for (double load : LOADS) {
+            Params p = new Params(NUM_FLOORS,6,2,BOUNDS,1);
+            p.setLoad(load);
+            for (int list = 0; list < 2; list++) {
+                long best = Long.MAX_VALUE;
+                EngineProfile bestProf = null;
+                Stats s = null;
+                for (int r = 0; r < ROUNDS; r++) {
+                    s = new Stats();
+                    EventList e = list == 0 ? new HeapEventList(NUM_FLOORS) : new FloorSlotEventList(NUM_FLOORS);
+                    Engine eng = new Engine(p,s,1,false,e);
+                    long start = System.nanoTime();
+                    eng.run(RUNTIME);
+                    best = Math.min(best,System.nanoTime() - start);
+                    //Separate profiled run, profiling slows the loop down
+                    EngineProfile prof = new EngineProfile();
+                    eng = new Engine(p,new Stats(),1,false,list == 0 ? new HeapEventList(NUM_FLOORS) : new FloorSlotEventList(NUM_FLOORS));
+                    eng.setProfile(prof);
+                    eng.run(RUNTIME);
+                    if (bestProf == null || prof.pollNanos + prof.scheduleNanos < bestProf.pollNanos + bestProf.scheduleNanos) {
+                        bestProf = prof;
+                    }
+                }
+                long events = bestProf.counts[EngineProfile.GEN] + bestProf.counts[EngineProfile.ARR] + bestProf.counts[EngineProfile.EXIT];
+                System.out.print(load + "," + (list == 0 ? "heap" : "floor_slots") + "," + (best / 1000000) + "," + (bestProf.pollNanos / events) + "," + (bestProf.scheduleNanos / bestProf.numScheduled) + "," + bestProf.peakSize + ",");
+                s.printQuiet();
+            }
+        }
+    }
+
+}
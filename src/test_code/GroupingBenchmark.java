@@ -0,0 +1,44 @@
+package sim;
+
+/**
+ * Compares a trip per user with destination dispatch as the load rises.
+ * Runs a seeded week for each load, grouping window and destination zone,
+ * and prints the user statistics next to the per run statistics.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/GroupingBenchmark.java -d ../bench
+ *     java -cp ../bench sim.GroupingBenchmark [ALGO]
+ */
+
+public class GroupingBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static double[] LOADS = new double[]{1,2,3,4};
+    final static int[][] GROUPING = new int[][]{{0,1},{30,1},{30,3},{60,3}};
+    final static int RUNTIME = 3600 * 24 * 7;
+
+    public static void main(String[] args) {
+        int algo = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        System.out.println("load,window,spread,ms,arrived,exited,avg_wait,avg_time,runs,users_per_run,avg_run_time,avg_join_wait");
+        for (double load : LOADS) {
+            for (int[] g : GROUPING) {
+                Params p = new Params(NUM_FLOORS,6,2,BOUNDS,1);
+                p.setLoad(load);
+                p.setGrouping(g[0],g[1]);
+                Stats s = new Stats();
+                long start = System.nanoTime();
+                new Engine(p,s,algo,false).run(RUNTIME);
+                long ms = (System.nanoTime() - start) / 1000000;
+                int runs = s.numGroups != 0 ? s.numGroups : s.numIn;
+                System.out.println(load + "," + g[0] + "," + g[1] + "," + ms + ","
+                    + s.numIn + "," + s.numOut + "," + (s.totTimeWait / s.numIn) + "," + (s.totTime / s.numOut) + ","
+                    + runs + "," + String.format("%.2f",(double)s.numIn / runs) + ","
+                    + (s.numGroups != 0 ? s.totGroupTime / s.numGroups : 0) + ","
+                    + (s.numJoined != 0 ? s.totJoinWait / s.numJoined : 0));
+            }
+        }
+    }
+
+}
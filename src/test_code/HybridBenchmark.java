@@ -0,0 +1,47 @@
+package sim;
+
+/**
+ * Times the hybrid event list against the binary heap as traffic grows.
+ * Also checks both give the same results.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/HybridBenchmark.java -d ../bench
+ *     java -cp ../bench sim.HybridBenchmark
+ */
+
+public class HybridBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static double[] LOADS = new double[]{1,10,50,200};
+    final static int RUNTIME = 3600 * 24;
+    final static int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        System.out.println("load,events,heap_ms,hybrid_ms,stepped_at_end,switches,same_result");
+        for (double load : LOADS) {
+            Params p = new Params(NUM_FLOORS,6,2,BOUNDS,1);
+            p.setLoad(load);
+            long heapTime = Long.MAX_VALUE;
+            long hybridTime = Long.MAX_VALUE;
+            Stats hs = null;
+            Stats ys = null;
+            HybridEventList y = null;
+            for (int r = 0; r < ROUNDS; r++) {
+                hs = new Stats();
+                long start = System.nanoTime();
+                new Engine(p,hs,1,false).run(RUNTIME);
+                heapTime = Math.min(heapTime,System.nanoTime() - start);
+                ys = new Stats();
+                y = new HybridEventList(NUM_FLOORS);
+                start = System.nanoTime();
+                new Engine(p,ys,1,false,y).run(RUNTIME);
+                hybridTime = Math.min(hybridTime,System.nanoTime() - start);
+            }
+            boolean same = hs.numIn == ys.numIn && hs.numOut == ys.numOut && hs.totTime == ys.totTime && hs.totTimeWait == ys.totTimeWait;
+            System.out.println(load + "," + (hs.numIn + hs.numOut) + "," + (heapTime / 1000000) + "," + (hybridTime / 1000000) + "," + y.isStepped() + "," + y.numSwitches() + "," + same);
+        }
+    }
+
+}
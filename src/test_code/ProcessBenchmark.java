@@ -0,0 +1,108 @@
+package sim;
+
+/**
+ * Compares the process-interaction path against the event path.
+ * Checks that passengers as processes give the same results as events,
+ * then times a large population of concurrent hold processes.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/ProcessBenchmark.java -d ../bench
+ *     java -cp ../bench sim.ProcessBenchmark [NUM_PROCESSES]
+ */
+
+public class ProcessBenchmark {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static int RUNTIME = 3600 * 24 * 7;
+    final static int NUM_HOLDS = 20;        //Holds per process in the population run
+    final static int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int numProcs = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Params p = new Params(NUM_FLOORS,6,2,BOUNDS,1);
+        long eventTime = Long.MAX_VALUE;
+        long procTime = Long.MAX_VALUE;
+        Stats es = null;
+        Stats ps = null;
+        for (int r = 0; r < ROUNDS; r++) {
+            es = new Stats();
+            long start = System.nanoTime();
+            new Engine(p,es,1,false).run(RUNTIME);
+            eventTime = Math.min(eventTime,System.nanoTime() - start);
+            ps = new Stats();
+            start = System.nanoTime();
+            new Engine(p,ps,1,false).runProcesses(RUNTIME);
+            procTime = Math.min(procTime,System.nanoTime() - start);
+        }
+        System.out.println("path,ms,result");
+        System.out.print("event," + (eventTime / 1000000) + ",");
+        es.printQuiet();
+        System.out.print("process," + (procTime / 1000000) + ",");
+        ps.printQuiet();
+
+        //Population of concurrent processes sharing one resource
+        System.out.println("processes,holds,ms,ns_per_step,heap_mb,checksum");
+        for (int r = 0; r < 2; r++) {
+            System.gc();
+            Runtime rt = Runtime.getRuntime();
+            long before = rt.totalMemory() - rt.freeMemory();
+            Engine eng = new Engine(p,new Stats(),1,false);
+            SimContext ctx = new SimContext(p);
+            Resource desk = new Resource(numProcs / 10);
+            long[] checksum = new long[1];
+            for (int i = 0; i < numProcs; i++) {
+                eng.start(new HoldProcess(new User(ctx,0,1),desk,checksum),i % 1000);
+            }
+            long start = System.nanoTime();
+            eng.resume(Integer.MAX_VALUE);     //Until every process finishes
+            long time = System.nanoTime() - start;
+            long heap = rt.totalMemory() - rt.freeMemory() - before;
+            long steps = (long)numProcs * NUM_HOLDS * 3;
+            System.out.println(numProcs + "," + NUM_HOLDS + "," + (time / 1000000) + "," + (time / steps) + "," + (heap >> 20) + "," + checksum[0]);
+        }
+    }
+
+    /**
+     * Process that repeatedly awaits a shared resource and holds it for a random time.
+     */
+
+    static class HoldProcess extends SimProcess {
+
+        final Resource r;
+        final long[] checksum;
+        int holds;
+
+        HoldProcess(User u, Resource r, long[] checksum) {
+            super(u);
+            this.r = r;
+            this.checksum = checksum;
+        }
+
+        @Override
+        void step(Model m) {
+            checksum[0] = checksum[0] * 31 + now() * 1000003L + u.id;
+            switch (pc) {
+                case 0:
+                    //Queue for a unit
+                    pc = 1;
+                    await(r);
+                    break;
+                case 1:
+                    //Use the unit
+                    pc = 2;
+                    hold(1 + u.rng.r.nextInt(100));
+                    break;
+                case 2:
+                    release(r);
+                    if (++holds < NUM_HOLDS) {
+                        pc = 1;
+                        await(r);
+                    }
+                    break;
+            }
+        }
+    }
+
+}
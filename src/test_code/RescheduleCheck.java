@@ -0,0 +1,199 @@
+package sim;
+
+import java.util.*;
+
+/**
+ * Checks that rescheduling events gives the same results on every event list, with and without pooling.
+ * Runs dense traffic with a tick listener that moves random pending events to the next few seconds.
+ * Each move leaves a tombstone, so the engine keeps rebuilding the list, after which the time wheel
+ * behind the hybrid list gets events earlier than ones it already popped.
+ * Also checks that processed events can't be cancelled and that the engine's count of
+ * tombstones matches the tombstones left in the list.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/RescheduleCheck.java -d ../bench
+ *     java -cp ../bench sim.RescheduleCheck [ALGO]
+ */
+
+public class RescheduleCheck {
+
+    final static int NUM_FLOORS = 21;
+    final static int[] BOUNDS = new int[]{1,12,2,21};
+    final static double LOAD = 3;
+    final static int RUNTIME = 3600 * 24;
+    final static int MOVES = 3;         //Most events moved per tick
+    final static int MAX_DELAY = 5;     //Latest second after the tick an event moves to
+    final static int NUM_LISTS = 4;
+
+    public static void main(String[] args) {
+        int algo = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        System.out.println("list,pooled,users_in,users_out,moves,rebuilds,rejected,tombstones_match,same_result");
+        Stats ref = null;
+        boolean failed = false;
+        for (boolean pooled : new boolean[]{false,true}) {
+            for (int l = 0; l < NUM_LISTS; l++) {
+                EventList list = list(l);
+                Stats s = new Stats();
+                Tracker t = run(list,pooled,algo,s);
+                if (ref == null) {
+                    ref = s;
+                }
+                boolean same = s.numIn == ref.numIn && s.numOut == ref.numOut && s.totTime == ref.totTime && s.totTimeWait == ref.totTimeWait;
+                failed |= !same || !t.tombstonesMatch || t.numRejected == 0 || t.numAccepted > 0;
+                System.out.println(list.getClass().getSimpleName() + "," + pooled + "," + s.numIn + "," + s.numOut + "," + t.numMoves + "," + t.numRebuilds + "," + t.numRejected + "," + t.tombstonesMatch + "," + same);
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates an empty event list.
+     *
+     * @param l index of the implementation
+     * @return event list
+     */
+
+    static EventList list(int l) {
+        switch (l) {
+            case 0:
+                return new HeapEventList(NUM_FLOORS);
+            case 1:
+                return new CalendarQueue();
+            case 2:
+                return new FloorSlotEventList(NUM_FLOORS);
+            default:
+                return new HybridEventList(NUM_FLOORS);
+        }
+    }
+
+    /**
+     * Runs the engine on an event list, moving events after every tick.
+     *
+     * @param list empty event list
+     * @param pooled true to recycle users and events
+     * @param algo dispatch algorithm
+     * @param s statistics aggregator
+     * @return tracker of the run
+     */
+
+    static Tracker run(EventList list, final boolean pooled, int algo, Stats s) {
+        Params p = new Params(NUM_FLOORS,6,2,BOUNDS,1);
+        p.setLoad(LOAD);
+        final Tracker t = new Tracker(list);
+        final Engine e = new Engine(p,s,algo,false,t);
+        e.setPooled(pooled);
+        final Random r = new Random(1);
+        e.setTickListener(new TickListener() {
+            public void tick(int time, int numEvents) {
+                //A pooled event may already be scheduled again, only a free one is known to be stale
+                Event done = t.lastPopped;
+                if (done != null && !done.cancelled && !t.pending.contains(done) && done.timestamp == time && (!pooled || done.u == null)) {
+                    try {
+                        e.cancel(done);
+                        t.numAccepted++;
+                    } catch (IllegalArgumentException ex) {
+                        t.numRejected++;
+                    }
+                }
+                //Pick by user id, so every list moves the same events
+                List<Event> live = new ArrayList<Event>();
+                for (Event event : t.pending) {
+                    if (!event.cancelled && event.timestamp > time) {
+                        live.add(event);
+                    }
+                }
+                if (live.isEmpty()) {
+                    return;
+                }
+                Collections.sort(live,new Comparator<Event>() {
+                    public int compare(Event a, Event b) {
+                        return a.id != b.id ? Integer.compare(a.id,b.id) : a.compareTo(b);
+                    }
+                });
+                int n = r.nextInt(MOVES + 1);
+                for (int i = 0; i < n; i++) {
+                    Event event = live.get(r.nextInt(live.size()));
+                    if (event.cancelled) {
+                        continue;
+                    }
+                    t.inTick = true;
+                    e.reschedule(event,time + 1 + r.nextInt(MAX_DELAY));
+                    t.inTick = false;
+                    t.numMoves++;
+                }
+            }
+        });
+        e.run(RUNTIME);
+        int numTombstones = 0;
+        for (Event event : t.pending) {
+            if (event.cancelled) {
+                numTombstones++;
+            }
+        }
+        t.tombstonesMatch = numTombstones == e.numCancelled();
+        return t;
+    }
+
+    /**
+     * Event list that keeps track of pending events, so the tick listener can pick some to move.
+     * Polls while events are moved come from the engine rebuilding the list.
+     */
+
+    static class Tracker implements EventList {
+
+        final EventList list;
+        final Set<Event> pending = Collections.newSetFromMap(new IdentityHashMap<Event,Boolean>());
+        Event lastPopped;
+        boolean inTick;
+        int numMoves;
+        int numRebuilds;
+        int numRejected;
+        int numAccepted;
+        boolean tombstonesMatch;
+        private boolean rebuilding;
+
+        Tracker(EventList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void add(Event e) {
+            rebuilding = false;
+            pending.add(e);
+            list.add(e);
+        }
+
+        @Override
+        public Event poll() {
+            Event e = list.poll();
+            pending.remove(e);
+            if (inTick && !rebuilding) {
+                rebuilding = true;
+                numRebuilds++;
+            }
+            if (!inTick) {
+                lastPopped = e;
+            }
+            return e;
+        }
+
+        @Override
+        public Event peek() {
+            return list.peek();
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return list.isEmpty();
+        }
+    }
+
+}
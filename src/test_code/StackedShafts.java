@@ -0,0 +1,72 @@
+package sim;
+
+/**
+ * Checks that shafts with 2, 3 and 4 stacked cabs stay in order.
+ * Cabs can't pass each other, so no cab may head outside the building
+ * or to a floor at or past the cab above it in its shaft.
+ * Runs a full week of the measured traffic for each layout and checks every shaft after each tick.
+ * With 3 or more stacked cabs no cab reaches both the lobby and the top floor,
+ * so those trips change cabs at a transfer floor.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/StackedShafts.java -d ../bench
+ *     java -cp ../bench sim.StackedShafts [ALGO]
+ */
+
+public class StackedShafts {
+
+    final static int NUM_FLOORS = 21;
+    final static int NUM_SHAFTS = 6;
+    final static int[][] BOUNDS = new int[][]{
+        {1,12,2,21},
+        {1,12,2,20,12,21},
+        {1,12,2,12,3,20,12,21}};
+    final static int[] UNROUTABLE = new int[]{1,10,11,21};     //No floor both cabs reach
+    final static int DURATION = 3600 * 24 * 7;
+
+    public static void main(String[] args) {
+        int algo = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        System.out.println("stacked,algo,users_in,users_out,transfers,outside,out_of_order,avg_wait");
+        boolean failed = false;
+        for (int[] bounds : BOUNDS) {
+            int numStacked = bounds.length / 2;
+            Params p = new Params(NUM_FLOORS,NUM_SHAFTS,numStacked,bounds,1);
+            Stats s = new Stats();
+            Engine e = new Engine(p,s,algo,false);
+            final CabStore cabs = e.getModel().getCabs();
+            final long[] violations = new long[2];     //Outside the building, out of order
+            e.setTickListener(new TickListener() {
+                public void tick(int time, int numEvents) {
+                    //Cabs that never moved still head to floor 0
+                    for (int c = 0; c < cabs.size(); c++) {
+                        if (cabs.dest[c] == 0) {
+                            continue;
+                        }
+                        if (cabs.dest[c] < 1 || cabs.dest[c] > NUM_FLOORS) {
+                            violations[0]++;
+                        }
+                        int up = cabs.above[c];
+                        if (up != CabStore.NONE && cabs.dest[up] != 0 && cabs.dest[up] <= cabs.dest[c]) {
+                            violations[1]++;
+                        }
+                    }
+                }
+            });
+            e.run(DURATION);
+            failed |= violations[0] > 0 || violations[1] > 0;
+            System.out.println(numStacked + "," + algo + "," + s.numIn + "," + s.numOut + "," + s.numTransfers + "," + violations[0] + "," + violations[1] + "," + s.totTimeWait / Math.max(1,s.numIn));
+        }
+        try {
+            new Engine(new Params(NUM_FLOORS,NUM_SHAFTS,2,UNROUTABLE,1),new Stats(),algo,false);
+            System.out.println("Layout with no transfer floor was accepted");
+            failed = true;
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Rejected: " + ex.getMessage());
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+}
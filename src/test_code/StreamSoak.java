@@ -0,0 +1,53 @@
+package sim;
+
+/**
+ * Soak test of the streaming mode.
+ * Streams five minute windows for many simulated weeks and reports heap use after each week,
+ * which should stay flat. Also checks the windows add up to the cumulative statistics.
+ *
+ * To run from /src:
+ *
+ *     javac *.java test_code/StreamSoak.java -d ../bench
+ *     java -cp ../bench sim.StreamSoak [WEEKS] [LOAD]
+ */
+
+public class StreamSoak {
+
+    final static int WEEK = 3600 * 24 * 7;
+    final static int WINDOW = 300;
+
+    public static void main(String[] args) {
+        final int weeks = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        double load = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        Params p = new Params(21,6,2,new int[]{1,12,2,21},1);
+        p.setLoad(load);
+        Stats s = new Stats();
+        Engine e = new Engine(p,s,2,false);
+        e.setPooled(true);
+        final long[] sums = new long[4];
+        final Runtime rt = Runtime.getRuntime();
+        System.out.println("week,windows,heap_kb");
+        long start = System.nanoTime();
+        e.stream(weeks * WEEK,WINDOW,new StatsSink() {
+            int numWindows;
+
+            @Override
+            public boolean accept(StatsWindow w) {
+                numWindows++;
+                sums[0] += w.numIn;
+                sums[1] += w.numOut;
+                sums[2] += w.totTimeWait;
+                sums[3] += w.totTime;
+                if (w.end % WEEK == 0) {
+                    System.gc();
+                    System.out.println((w.end / WEEK) + "," + numWindows + "," + ((rt.totalMemory() - rt.freeMemory()) >> 10));
+                }
+                return true;
+            }
+        });
+        long time = System.nanoTime() - start;
+        boolean sumsMatch = sums[0] == s.numIn && sums[1] == s.numOut && sums[2] == s.totTimeWait && sums[3] == s.totTime;
+        System.out.println("ms," + (time / 1000000) + ",windows_sum_to_totals," + sumsMatch);
+    }
+
+}
@@ -1,37 +1,34 @@
 package sim;
 
 /**
- * Holds state variables for generators.
+ * Generator with a constant inter-arrival time, for checking runs by hand.
  */
 
-public class testGenerator {
+public class testGenerator extends Generator {
 
-    static int count = 0;
-    int id;
-    RNG rng;
+    final static int INTERVAL = 5;
 
     /**
-     * Constructs a random generator.
+     * Constructs a constant generator.
      *
-     * @param mean average for generator. Not yet implemented.
+     * @param ctx context of the simulation
      */
 
-    testGenerator() {
-        id = count;
-        count++;
-        rng = new RNG();
+    testGenerator(SimContext ctx) {
+        super(ctx);
     }
 
     /**
-     * Returns a random number with a triangular distribution
+     * Returns the next arrival a constant interval after the current time
      *
      * @param currTime current time
-     * @return random time after current time
+     * @param load unused, arrivals are not scaled
+     * @return time after current time
      */
 
-    int gen(int currTime) {
-        return 5 + currTime;
+    @Override
+    int gen(int currTime, double load) {
+        return INTERVAL + currTime;
     }
         
 }
-
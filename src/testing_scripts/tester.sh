@@ -1,103 +1,6 @@
 #!/bin/bash
 javac *.java -d test
 cd test
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 1 0 >> ../out1.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
-java Driver 2 0 >> ../out2.csv
+java Driver 1 0 -r 50 >> ../out1.csv
+java Driver 2 0 -r 50 >> ../out2.csv
 cd ..